@@ -239,7 +239,6 @@ public class AutoSpellingTextArea extends StyledTextArea<Boolean> {
 	 */
 	public StyleSpans<Boolean> checkSpelling() {
 		String text = getText();
-		String word;
 
 		// keep track of end of matcher
 		int lastEnd = 0;
@@ -250,10 +249,8 @@ public class AutoSpellingTextArea extends StyledTextArea<Boolean> {
 		Matcher matcher = pattern.matcher(text);
 
 		while (matcher.find()) {
-			word = matcher.group();
-
-			// HINT: may need to change if handling caps
-			boolean styleClass = dic.isWord(word);
+			// look the word up where it is, without copying it out of the text
+			boolean styleClass = dic.isWord(text, matcher.start(), matcher.end());
 			spansBuilder.add(true, matcher.start() - lastEnd);
 			spansBuilder.add(styleClass, matcher.end() - matcher.start());
 			lastEnd = matcher.end();
@@ -16,28 +16,45 @@ public class LaunchClass {
 		return new document.EfficientDocument(text);
 	}
 	
+	public document.IncrementalDocument getIncrementalDocument(String text) {
+		return new document.IncrementalDocument(text);
+	}
+	
 	public textgen.MarkovTextGenerator getMTG() {
 		return new textgen.MarkovTextGeneratorLoL(new Random());
 	}
 	
+	// Built on first use and shared, as building the index takes longer
+	// than finding a path with it
+	private static spelling.WordPath wordPath;
+
 	public spelling.WordPath getWordPath() {
-		return new spelling.WPTree();
+		//return new spelling.WPTree();
+		synchronized (LaunchClass.class) {
+			if (wordPath == null) {
+				wordPath = new spelling.WordPathBidirectional(
+						spelling.DictionaryLoader.readWords(dictFile).toArray(new String[0]));
+			}
+			return wordPath;
+		}
 	}
 	
+    // Binary image of dictFile, rebuilt whenever dictFile is newer
+    public String dictImage = "data/dict.trie";
+    
     public spelling.AutoComplete getAutoComplete() {
-        spelling.AutoCompleteDictionaryTrie tr = new spelling.AutoCompleteDictionaryTrie();
-        spelling.DictionaryLoader.loadDictionary(tr, dictFile);
-        return tr;
+        return spelling.DictionaryImage.loadTrie(dictFile, dictImage);
     }
     
     public spelling.Dictionary getDictionary() {
-        spelling.Dictionary d = new spelling.DictionaryBST();
-        spelling.DictionaryLoader.loadDictionary(d, dictFile);
-    	return d;
+        return spelling.DictionaryImage.loadTrie(dictFile, dictImage);
     }
     
     public spelling.SpellingSuggest getSpellingSuggest(spelling.Dictionary dic) {
     	//return new spelling.SpellingSuggestNW(new spelling.NearbyWords(dic));
+    	// Much faster, but does not suggest words added to dic while running:
+    	//return new spelling.SpellingSuggestSymSpell(
+    	//		spelling.DictionaryLoader.readWords(dictFile).toArray(new String[0]));
     	return new spelling.NearbyWords(dic);
     
     }
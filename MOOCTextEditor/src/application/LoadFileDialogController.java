@@ -1,10 +1,12 @@
 package application;
 
-import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 
 import javafx.fxml.FXML;
 import javafx.scene.control.TextField;
@@ -81,16 +83,16 @@ public class LoadFileDialogController {
 	
 	
 	private String getStringFromFile(File file) {
-		try {
-			BufferedReader buf = new BufferedReader(new FileReader(file));
-			String str;
-			StringBuilder sb = new StringBuilder();
-	
-			while( (str = buf.readLine())!=null) {
-				sb.append(str).append('\n');
+		try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+			// read in blocks rather than a line at a time
+			StringBuilder sb = new StringBuilder((int) Math.min(file.length(), Integer.MAX_VALUE - 8));
+			char[] block = new char[8192];
+			int count;
+			while ((count = reader.read(block)) != -1) {
+				sb.append(block, 0, count);
 			}
-			buf.close();
-			return sb.toString();
+			// line ends, "\r\n" or a lone '\r', become '\n', as they did when reading by lines
+			return sb.indexOf("\r") < 0 ? sb.toString() : sb.toString().replace("\r\n", "\n").replace('\r', '\n');
 		}
 		catch(FileNotFoundException ex) {
 			// file not found
@@ -35,6 +35,9 @@ public class TextProController {
 	// UI Controls
 	private AutoSpellingTextArea textBox;
 	
+	// Document kept in sync with textBox, used for the flesch score
+	private document.IncrementalDocument fleschDocument;
+	
 	@FXML
 	private VBox leftPane;
 	
@@ -88,6 +91,13 @@ public class TextProController {
 		
 		textBox.setWrapText(true);
 		
+		// update document statistics with each edit instead of rescanning
+		fleschDocument = launch.getIncrementalDocument(textBox.getText());
+		textBox.plainTextChanges().subscribe(change -> {
+			int start = change.getPosition();
+			fleschDocument.replace(start, start + change.getRemoved().length(), change.getInserted());
+		});
+		
 		
 		// add text area as first child of left VBox
 		ObservableList<Node> nodeList = leftPane.getChildren();
@@ -153,16 +163,13 @@ public class TextProController {
 	
 	@FXML
 	private void handleFleschIndex() {
-		String text = textBox.getText();
 		double fIndex = 0;
 		
 		// check if text input
-		if(!text.equals("")) {
-			
-			// create Document representation of  current text
-			document.Document doc = launch.getDocument(text);
+		if(fleschDocument.length() > 0) {
 			
-			fIndex = doc.getFleschScore();
+			// document statistics are already up to date with the text
+			fIndex = fleschDocument.getFleschScore();
 			
 			//get string with two decimal places for index to
 			String fString = String.format("%.2f", fIndex);
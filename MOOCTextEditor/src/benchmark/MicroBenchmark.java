@@ -0,0 +1,204 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A small benchmark harness that follows the same rules as JMH: each
+ * operation is warmed up before it is measured, it is measured over several
+ * timed iterations, its results are consumed so the JIT cannot remove the
+ * work as dead code, and whole benchmarks can be run in a fresh JVM so that
+ * the JIT profile of one benchmark does not affect the next.
+ *
+ * Besides throughput it reports the bytes allocated per operation and the
+ * allocation rate, like the JMH gc profiler.  Allocation is only counted on
+ * the measuring thread, so work handed to other threads is not included.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ */
+public class MicroBenchmark {
+
+	/** A benchmarked operation.  It returns a value computed from its 
+	 * result (e.g. a count, or a hash of an object it built), which is 
+	 * consumed.  Returning a primitive keeps boxing out of the measurement. */
+	public interface Operation {
+		public long run();
+	}
+
+	// Batches shorter than this are doubled, so timing is not dominated by nanoTime
+	private static final long MIN_BATCH_NANOS = 100000;
+
+	// Results of every operation are folded in here to keep them alive
+	private static volatile long sink;
+
+	private int warmupIterations;
+	private int measurementIterations;
+	private long iterationNanos;
+
+	/** Create a harness
+	 *
+	 * @param warmupIterations The number of unmeasured iterations to run first
+	 * @param measurementIterations The number of measured iterations
+	 * @param iterationMillis The length of each iteration in milliseconds
+	 */
+	public MicroBenchmark(int warmupIterations, int measurementIterations, long iterationMillis)
+	{
+		this.warmupIterations = warmupIterations;
+		this.measurementIterations = measurementIterations;
+		this.iterationNanos = iterationMillis * 1000000L;
+	}
+
+	/** Warm up and then measure an operation
+	 *
+	 * @param name The name to report the result under
+	 * @param op The operation to measure
+	 * @return The measured result
+	 */
+	public Result measure(String name, Operation op)
+	{
+		for (int i = 0; i < warmupIterations; i++) {
+			runIteration(op);
+		}
+
+		double[] opsPerSecond = new double[measurementIterations];
+		long totalOps = 0;
+		long totalNanos = 0;
+		long allocatedBefore = allocatedBytes();
+		for (int i = 0; i < measurementIterations; i++) {
+			long[] iteration = runIteration(op);
+			totalOps += iteration[0];
+			totalNanos += iteration[1];
+			opsPerSecond[i] = iteration[0] * 1e9 / iteration[1];
+		}
+		long allocatedAfter = allocatedBytes();
+
+		long allocated = allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore;
+		return new Result(name, opsPerSecond, totalOps, totalNanos, allocated);
+	}
+
+	/** Run the operation for one iteration.
+	 * @return the number of operations and the nanoseconds they took */
+	private long[] runIteration(Operation op)
+	{
+		long hash = 0;
+		long ops = 0;
+		long batch = 1;
+		long start = System.nanoTime();
+		long now = start;
+		while (now - start < iterationNanos) {
+			long batchStart = now;
+			for (long i = 0; i < batch; i++) {
+				hash += op.run();
+			}
+			ops += batch;
+			now = System.nanoTime();
+			if (now - batchStart < MIN_BATCH_NANOS) {
+				batch *= 2;
+			}
+		}
+		sink += hash;
+		return new long[] {ops, now - start};
+	}
+
+	/** Return the bytes allocated so far by this thread, or -1 if the JVM
+	 * does not report it */
+	private static long allocatedBytes()
+	{
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+			if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+				return hotspot.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		return -1;
+	}
+
+	/** Run mainClass with the given arguments in a new JVM that has the same
+	 * class path as this one, and wait for it to finish.  Its output goes to
+	 * this JVM's output.
+	 *
+	 * @param mainClass The class whose main method to run
+	 * @param args The arguments to pass
+	 * @return The exit code of the new JVM
+	 */
+	public static int fork(Class<?> mainClass, String... args) throws IOException, InterruptedException
+	{
+		List<String> command = new ArrayList<String>();
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(mainClass.getName());
+		command.addAll(Arrays.asList(args));
+
+		Process process = new ProcessBuilder(command).inheritIO().start();
+		return process.waitFor();
+	}
+
+	/** Return the header line matching Result.toString() */
+	public static String header()
+	{
+		return String.format("%-40s %16s %12s %14s %12s %12s",
+				"Benchmark", "ops/s", "error", "ns/op", "B/op", "MB/s alloc");
+	}
+
+	/** The measured throughput and allocation of one operation */
+	public static class Result {
+		private String name;
+		private double meanOpsPerSecond;
+		private double error;
+		private double nanosPerOp;
+		private double bytesPerOp;
+		private double allocationRate;
+
+		private Result(String name, double[] opsPerSecond, long totalOps, long totalNanos, long allocated)
+		{
+			this.name = name;
+
+			double sum = 0;
+			for (double ops : opsPerSecond) {
+				sum += ops;
+			}
+			this.meanOpsPerSecond = sum / opsPerSecond.length;
+
+			// report one standard deviation between iterations as the error
+			double squares = 0;
+			for (double ops : opsPerSecond) {
+				squares += (ops - meanOpsPerSecond) * (ops - meanOpsPerSecond);
+			}
+			this.error = opsPerSecond.length > 1 ? Math.sqrt(squares / (opsPerSecond.length - 1)) : 0;
+
+			this.nanosPerOp = (double) totalNanos / totalOps;
+			this.bytesPerOp = allocated < 0 ? Double.NaN : (double) allocated / totalOps;
+			this.allocationRate = allocated < 0 ? Double.NaN : allocated * 1e9 / totalNanos / (1024 * 1024);
+		}
+
+		public String getName()
+		{
+			return name;
+		}
+
+		/** Return the mean number of operations per second */
+		public double getOpsPerSecond()
+		{
+			return meanOpsPerSecond;
+		}
+
+		/** Return the bytes allocated per operation, or NaN if unknown */
+		public double getBytesPerOp()
+		{
+			return bytesPerOp;
+		}
+
+		@Override
+		public String toString()
+		{
+			return String.format("%-40s %16.3f %12.3f %14.1f %12.1f %12.1f",
+					name, meanOpsPerSecond, error, nanosPerOp, bytesPerOp, allocationRate);
+		}
+	}
+}
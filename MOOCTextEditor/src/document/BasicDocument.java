@@ -1,7 +1,5 @@
 package document;
 
-import java.util.List;
-
 /** 
  * A naive implementation of the Document abstract class. 
  * @author UC San Diego Intermediate Programming MOOC team
@@ -35,9 +33,7 @@ public class BasicDocument extends Document
 	public int getNumWords()
 	{
 		// match all letters
-		List words = this.getTokens("[a-zA-Z]+");
-
-	    return words.size();
+	    return this.countTokens("[a-zA-Z]+");
 	}
 	
 	/**
@@ -55,11 +51,11 @@ public class BasicDocument extends Document
 	@Override
 	public int getNumSentences()
 	{
-	    List sentences = this.getTokens("[\\?\\!\\.]+");
+	    int sentences = this.countTokens("[\\?\\!\\.]+");
 
-	    List lastContiguousSetWithoutPunctuationMark = this.getTokens("[^\\.\\!\\? ]$");
+	    int lastContiguousSetWithoutPunctuationMark = this.countTokens("[^\\.\\!\\? ]$");
 
-        return sentences.size() + lastContiguousSetWithoutPunctuationMark.size();
+        return sentences + lastContiguousSetWithoutPunctuationMark;
 	}
 	
 	/**
@@ -79,16 +75,12 @@ public class BasicDocument extends Document
 	@Override
 	public int getNumSyllables()
 	{
-		// match all letters
-		List words = this.getTokens("[a-zA-Z]+");
-
-		int numSyllables = 0;
-		for (Object object : words) {
-			String word = (String) object;
-			numSyllables += countSyllables(word);
-		}
+		// match all letters, counting each word where it is in the text
+		CharSequence text = this.getCharSequence();
 
-        return numSyllables;
+		return this.tokenRanges("[a-zA-Z]+")
+				.mapToInt(word -> countSyllables(text, tokenStart(word), tokenEnd(word)))
+				.sum();
 	}
 	
 	
@@ -0,0 +1,233 @@
+package document;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** A command line tool that scores every text file under a directory.
+ *
+ * Usage: java document.BatchScorer [--json] [--threads N] [--ext .txt] directory
+ *
+ * Files are scored in parallel on a fixed number of worker threads.  Each
+ * result is written as soon as it is ready, one line per file, either as
+ * CSV (path,words,sentences,syllables,flesch) or as JSON lines.  The number
+ * of files scored per second and MB read per second are printed to standard
+ * error at the end.
+ *
+ * Memory use does not depend on the number of files: the directory is
+ * walked lazily, the queue of files waiting to be scored is bounded (the
+ * walking thread scores a file itself when the queue is full), results
+ * are not kept after they are written, and files are memory-mapped rather
+ * than read onto the heap.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ *
+ */
+public class BatchScorer {
+
+	// Files waiting to be scored, per worker thread
+	private static final int QUEUE_PER_THREAD = 4;
+
+	private Writer out;
+	private boolean json;
+	private String extension;
+
+	private AtomicLong numFiles = new AtomicLong();  // The number of files scored
+	private AtomicLong numBytes = new AtomicLong();  // The total size of the files scored
+	private AtomicLong numFailed = new AtomicLong();  // The number of files that could not be read
+
+	/** Create a BatchScorer
+	 *
+	 * @param out Where to write one line per scored file
+	 * @param json true to write JSON lines, false to write CSV
+	 * @param extension Only files whose names end with this are scored
+	 */
+	public BatchScorer(Writer out, boolean json, String extension)
+	{
+		this.out = out;
+		this.json = json;
+		this.extension = extension;
+	}
+
+	/** Score every matching file under root using the given number of threads
+	 *
+	 * @param root The directory to walk
+	 * @param threads The number of worker threads
+	 */
+	public void scoreAll(Path root, int threads) throws IOException, InterruptedException
+	{
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+				0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(threads * QUEUE_PER_THREAD),
+				new ThreadPoolExecutor.CallerRunsPolicy());
+
+		if (!json) {
+			write("path,words,sentences,syllables,flesch");
+		}
+
+		try {
+			Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+				{
+					if (attrs.isRegularFile() && file.getFileName().toString().endsWith(extension)) {
+						executor.execute(() -> score(file, attrs.size()));
+					}
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(Path file, IOException e)
+				{
+					System.err.println("Could not read " + file + ": " + e.getMessage());
+					numFailed.incrementAndGet();
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		}
+		finally {
+			executor.shutdown();
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			out.flush();
+		}
+	}
+
+	/** Score one file and write its line */
+	private void score(Path file, long size)
+	{
+		try {
+			// each worker scans its file on its own thread
+			Document doc = new MappedDocument(file, StandardCharsets.UTF_8, Integer.MAX_VALUE);
+			write(format(file, doc));
+			numFiles.incrementAndGet();
+			numBytes.addAndGet(size);
+		}
+		catch (IOException | RuntimeException e) {
+			System.err.println("Could not score " + file + ": " + e);
+			numFailed.incrementAndGet();
+		}
+	}
+
+	private String format(Path file, Document doc)
+	{
+		double flesch = doc.getFleschScore();
+		if (json) {
+			return "{\"path\":" + jsonString(file.toString())
+					+ ",\"words\":" + doc.getNumWords()
+					+ ",\"sentences\":" + doc.getNumSentences()
+					+ ",\"syllables\":" + doc.getNumSyllables()
+					+ ",\"flesch\":" + (Double.isNaN(flesch) || Double.isInfinite(flesch) ? "null" : flesch)
+					+ "}";
+		}
+		return csvString(file.toString()) + "," + doc.getNumWords() + "," + doc.getNumSentences()
+				+ "," + doc.getNumSyllables() + "," + flesch;
+	}
+
+	private synchronized void write(String line)
+	{
+		try {
+			out.write(line);
+			out.write('\n');
+		}
+		catch (IOException e) {
+			throw new RuntimeException("Could not write results", e);
+		}
+	}
+
+	private static String csvString(String s)
+	{
+		if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+			return s;
+		}
+		return "\"" + s.replace("\"", "\"\"") + "\"";
+	}
+
+	private static String jsonString(String s)
+	{
+		StringBuilder sb = new StringBuilder(s.length() + 2);
+		sb.append('"');
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c == '"' || c == '\\') {
+				sb.append('\\').append(c);
+			}
+			else if (c < 0x20) {
+				sb.append(String.format("\\u%04x", (int) c));
+			}
+			else {
+				sb.append(c);
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+	public long getNumFiles()
+	{
+		return numFiles.get();
+	}
+
+	public long getNumBytes()
+	{
+		return numBytes.get();
+	}
+
+	public long getNumFailed()
+	{
+		return numFailed.get();
+	}
+
+	public static void main(String[] args) throws Exception
+	{
+		boolean json = false;
+		int threads = Runtime.getRuntime().availableProcessors();
+		String extension = ".txt";
+		Path root = null;
+
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--json")) {
+				json = true;
+			}
+			else if (args[i].equals("--threads") && i + 1 < args.length) {
+				threads = Integer.parseInt(args[++i]);
+			}
+			else if (args[i].equals("--ext") && i + 1 < args.length) {
+				extension = args[++i];
+			}
+			else if (root == null && !args[i].startsWith("--")) {
+				root = Paths.get(args[i]);
+			}
+			else {
+				root = null;
+				break;
+			}
+		}
+		if (root == null || threads < 1) {
+			System.err.println("Usage: java document.BatchScorer [--json] [--threads N] [--ext .txt] directory");
+			System.exit(2);
+		}
+
+		Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+		BatchScorer scorer = new BatchScorer(out, json, extension);
+
+		long start = System.nanoTime();
+		scorer.scoreAll(root, threads);
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		double megabytes = scorer.getNumBytes() / (1024.0 * 1024.0);
+		System.err.println(String.format("Scored %d files (%.1f MB, %d failed) in %.2f s: "
+				+ "%.1f files/s, %.1f MB/s", scorer.getNumFiles(), megabytes, scorer.getNumFailed(),
+				seconds, scorer.getNumFiles() / seconds, megabytes / seconds));
+	}
+}
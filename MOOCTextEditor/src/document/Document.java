@@ -6,18 +6,33 @@ package document;
  */
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
 public abstract class Document {
 
-	private String text;
+	// The most compiled patterns kept in the pattern cache
+	private static final int MAX_CACHED_PATTERNS = 64;
+	
+	// Compiled token patterns, by regex
+	private static final Map<String, Pattern> patterns = new ConcurrentHashMap<String, Pattern>();
+	
+	private CharSequence text;
 	
 	/** Create a new document from the given text.
 	 * Because this class is abstract, this is used only from subclasses.
+	 * The text is usually a String, but subclasses may pass any 
+	 * CharSequence (e.g. a StringBuilder they edit in place).
 	 * @param text The text of the document.
 	 */
-	protected Document(String text)
+	protected Document(CharSequence text)
 	{
 		this.text = text;
 	}
@@ -32,7 +47,7 @@ public abstract class Document {
 	protected List<String> getTokens(String pattern)
 	{
 		ArrayList<String> tokens = new ArrayList<String>();
-		Pattern tokSplitter = Pattern.compile(pattern);
+		Pattern tokSplitter = compile(pattern);
 		Matcher m = tokSplitter.matcher(text);
 		
 		while (m.find()) {
@@ -42,6 +57,74 @@ public abstract class Document {
 		return tokens;
 	}
 	
+	/** Returns a lazy stream of the positions of the tokens that match the 
+	 * regex pattern in the document text.  Each token is encoded as one 
+	 * long; use tokenStart and tokenEnd to get its position.  No String is 
+	 * created for a token, so counting or filtering tokens this way does 
+	 * not allocate per token.  The stream can be made parallel: matching 
+	 * stays sequential, but batches of tokens are handed to other threads 
+	 * for processing.
+	 * 
+	 * @param pattern A regular expression string specifying the 
+	 *   token pattern desired
+	 * @return A stream of the token positions, in order
+	 */
+	public LongStream tokenRanges(String pattern)
+	{
+		final Matcher m = compile(pattern).matcher(text);
+		Spliterator.OfLong tokens = new Spliterators.AbstractLongSpliterator(Long.MAX_VALUE,
+				Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL) {
+			@Override
+			public boolean tryAdvance(LongConsumer action)
+			{
+				if (!m.find()) {
+					return false;
+				}
+				action.accept(((long) m.start() << 32) | m.end());
+				return true;
+			}
+		};
+		return StreamSupport.longStream(tokens, false);
+	}
+	
+	/** Return the number of tokens that match the regex pattern in the 
+	 * document text, without creating the tokens. */
+	public int countTokens(String pattern)
+	{
+		Matcher m = compile(pattern).matcher(text);
+		int count = 0;
+		while (m.find()) {
+			count++;
+		}
+		return count;
+	}
+	
+	/** Return the index of the first character of a token from tokenRanges */
+	public static int tokenStart(long token)
+	{
+		return (int) (token >>> 32);
+	}
+	
+	/** Return the index one past the last character of a token from tokenRanges */
+	public static int tokenEnd(long token)
+	{
+		return (int) token;
+	}
+	
+	/** Return the compiled pattern for a regex, compiling it only the first 
+	 * time it is used. */
+	protected static Pattern compile(String pattern)
+	{
+		Pattern compiled = patterns.get(pattern);
+		if (compiled == null) {
+			compiled = Pattern.compile(pattern);
+			if (patterns.size() < MAX_CACHED_PATTERNS) {
+				patterns.putIfAbsent(pattern, compiled);
+			}
+		}
+		return compiled;
+	}
+	
 	/** This is a helper function that returns the number of syllables
 	 * in a word.  You should write this and use it in your 
 	 * BasicDocument class.
@@ -64,58 +147,21 @@ public abstract class Document {
 	 */
 	protected int countSyllables(String word)
 	{
-		// vowels
-		String vowels = "eyuioaEYUIOA";
-
-		// each contiguous sequence of one or more vowels
-
-		// counters
-		int syllableCount = 0;
-		int prev = -1;
-		int cur = 0;
-
-		char[] wordArray = word.toCharArray();
-		for (char chr : wordArray) {
-			// first character is a vowel
-			if (cur == 0) {
-				if (vowels.indexOf(wordArray[cur]) > -1) {
-					syllableCount++;
-				}
-			}
-
-			// found char in word
-			if (vowels.indexOf(chr) > -1) {
-				if (prev >= 0) {
-					// if previous is not a char, increase syllable count
-					if (vowels.indexOf(wordArray[prev]) == -1) {
-						syllableCount++;
-					}
-				}
-			}
-
-			prev++;
-			cur++;
-		}
-
-		// a lone "e" at the end of a word is not considered a syllable unless the word has no other syllables
-		char lastChr = wordArray[wordArray.length-1];
-
-		// find lone e
-
-		// last char is 'e'
-		if ("e".indexOf(lastChr) > -1) {
-			if (word.length() >= 2) {
-				char nextToLastChr = wordArray[wordArray.length-2];
-				// character before is not a vowel => this is a lone 'e'
-				if (vowels.indexOf(nextToLastChr) == -1) {
-					if (syllableCount > 1) {
-						syllableCount--;
-					}
-				}
-			}
-		}
-
-	    return syllableCount;
+		return SyllableCounter.count(word, 0, word.length());
+	}
+	
+	/** Count the syllables in the word that occupies text[start, end), 
+	 * using the same rules as countSyllables(String).  This works directly 
+	 * on the characters of the text so no String is created for the word.
+	 * 
+	 * @param text The text containing the word
+	 * @param start The index of the first character of the word
+	 * @param end The index one past the last character of the word
+	 * @return The number of syllables in the word
+	 */
+	protected static int countSyllables(CharSequence text, int start, int end)
+	{
+		return SyllableCounter.count(text, start, end);
 	}
 	
 	/** A method for testing
@@ -171,10 +217,25 @@ public abstract class Document {
 	
 	/** Return the entire text of this document */
 	public String getText()
+	{
+		return this.text.toString();
+	}
+	
+	/** Return the text of this document without copying it into a String */
+	protected CharSequence getCharSequence()
 	{
 		return this.text;
 	}
 	
+	/** Return the Flesch, Flesch-Kincaid, Gunning fog, SMOG and Coleman-Liau 
+	 * scores of this document, all computed from one pass over the text. 
+	 * Subclasses that have already counted the text can return the 
+	 * scores without scanning it again. */
+	public Readability getReadability()
+	{
+		return Readability.of(text);
+	}
+	
 	/** return the Flesch readability score of this document */
 	public double getFleschScore()
 	{
@@ -82,6 +82,15 @@ public class DocumentBenchmarking {
 				document.getFleschScore();
 			}
 			timeEnd = System.nanoTime();
+			System.out.print(timeEnd - timeStart + "\t");
+
+			// ParallelDocument, using every core of the common ForkJoinPool
+			timeStart = System.nanoTime();
+			for (int trial=0; trial < trials; trial++) {
+				document = new ParallelDocument(testString);
+				document.getFleschScore();
+			}
+			timeEnd = System.nanoTime();
 			System.out.print(timeEnd - timeStart + "\n");
 		}
 	
@@ -95,16 +104,19 @@ public class DocumentBenchmarking {
 	 */
 	public static String getStringFromFile(String filename, int numChars) {
 		
-		StringBuffer s = new StringBuffer();
+		StringBuilder s = new StringBuilder(numChars);
 		try {
 			FileInputStream inputFile= new FileInputStream(filename);
 			InputStreamReader inputStream = new InputStreamReader(inputFile);
 			BufferedReader bis = new BufferedReader(inputStream);
+			// read in blocks rather than one char at a time
+			char[] block = new char[8192];
 			int val;
 			int count = 0;
-			while ((val = bis.read()) != -1 && count < numChars) {
-				s.append((char)val);
-				count++;
+			while (count < numChars 
+					&& (val = bis.read(block, 0, Math.min(block.length, numChars - count))) != -1) {
+				s.append(block, 0, val);
+				count += val;
 			}
 			if (count < numChars) {
 				System.out.println("Warning: End of file reached at " + count + " characters.");
@@ -0,0 +1,81 @@
+package document;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import benchmark.MicroBenchmark;
+
+/** Benchmarks every Document engine on slices of data/warAndPeace.txt.
+ * Unlike DocumentBenchmarking it warms up each measurement, runs each
+ * engine and size in its own JVM, keeps the results alive so the work
+ * cannot be optimized away, and reports allocation as well as time.
+ *
+ * For each engine and size it measures building the document and calling
+ * getFleschScore (the work the editor does), building the document alone,
+ * and each of getNumWords, getNumSentences, getNumSyllables and
+ * getFleschScore on an already built document.
+ *
+ * Run with no arguments to benchmark everything, or with an engine name
+ * and a number of characters to benchmark one case in this JVM.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ *
+ */
+public class DocumentMicroBenchmark {
+
+	// The text to take slices from
+	private static final String TEXT_FILE = "data/warAndPeace.txt";
+
+	// The number of characters in each slice
+	private static final int[] SIZES = {50000, 200000, 800000, 3200000};
+
+	// Each engine, by name.  Add new Document classes here.
+	private static final Map<String, Function<String, Document>> ENGINES = new LinkedHashMap<>();
+	static {
+		ENGINES.put("BasicDocument", BasicDocument::new);
+		ENGINES.put("EfficientDocument", EfficientDocument::new);
+		ENGINES.put("ParallelDocument", ParallelDocument::new);
+		ENGINES.put("IncrementalDocument", IncrementalDocument::new);
+	}
+
+	public static void main(String [] args) throws Exception {
+		if (args.length == 0) {
+			System.out.println(MicroBenchmark.header());
+			for (String engine : ENGINES.keySet()) {
+				for (int size : SIZES) {
+					MicroBenchmark.fork(DocumentMicroBenchmark.class, engine, String.valueOf(size));
+				}
+			}
+			return;
+		}
+
+		String engine = args[0];
+		Function<String, Document> factory = ENGINES.get(engine);
+		if (factory == null) {
+			System.err.println("Unknown engine " + engine + ", expected one of " + ENGINES.keySet());
+			System.exit(1);
+		}
+		int size = Integer.parseInt(args[1]);
+		String text = DocumentBenchmarking.getStringFromFile(TEXT_FILE, size);
+
+		MicroBenchmark bench = new MicroBenchmark(5, 5, 1000);
+		Document doc = factory.apply(text);
+		String prefix = engine + ".";
+		String suffix = ":" + text.length();
+
+		System.out.println(bench.measure(prefix + "score" + suffix,
+				() -> Double.doubleToLongBits(factory.apply(text).getFleschScore())));
+		System.out.println(bench.measure(prefix + "construct" + suffix,
+				() -> System.identityHashCode(factory.apply(text))));
+		System.out.println(bench.measure(prefix + "getNumWords" + suffix,
+				() -> doc.getNumWords()));
+		System.out.println(bench.measure(prefix + "getNumSentences" + suffix,
+				() -> doc.getNumSentences()));
+		System.out.println(bench.measure(prefix + "getNumSyllables" + suffix,
+				() -> doc.getNumSyllables()));
+		System.out.println(bench.measure(prefix + "getFleschScore" + suffix,
+				() -> Double.doubleToLongBits(doc.getFleschScore())));
+	}
+
+}
@@ -1,7 +1,5 @@
 package document;
 
-import java.util.List;
-
 /** 
  * A class that represents a text document
  * It does one pass through the document to count the number of syllables, words, 
@@ -14,6 +12,7 @@ public class EfficientDocument extends Document {
 	private int numWords = 0;  // The number of words in the document
 	private int numSentences = 0;  // The number of sentences in the document
 	private int numSyllables = 0;  // The number of syllables in the document
+	private Readability readability;  // All the scores, from the same pass
 	
 	public EfficientDocument(String text)
 	{
@@ -22,55 +21,30 @@ public class EfficientDocument extends Document {
 	}
 	
 	
-	/** 
-	 * Take a string that either contains only alphabetic characters,
-	 * or only sentence-ending punctuation.  Return true if the string
-	 * contains only alphabetic characters, and false if it contains
-	 * end of sentence punctuation.  
-	 * 
-	 * @param tok The string to check
-	 * @return true if tok is a word, false if it is punctuation. 
-	 */
-	private boolean isWord(String tok)
-	{
-	    // Note: This is a fast way of checking whether a string is a word
-	    // You probably don't want to change it.
-		return !(tok.indexOf("!") >=0 || tok.indexOf(".") >=0 || tok.indexOf("?") >=0);
-	}
-	
-	
     /** Passes through the text one time to count the number of words, syllables 
      * and sentences, and set the member variables appropriately.
      * Words, sentences and syllables are defined as described below. 
+     * 
+     * The text is scanned character by character, so no Pattern, token 
+     * Strings or token List are created.  The counts are the same as 
+     * splitting the text with getTokens("[!?.]+|[a-zA-Z]+").
      */
 	private void processText()
 	{
-		// Call getTokens on the text to preserve separate strings that are 
-		// either words or sentence-ending punctuation.  Ignore everything
-		// That is not a word or a sentence-ending puctuation.
-		// MAKE SURE YOU UNDERSTAND THIS LINE BEFORE YOU CODE THE REST
-		// OF THIS METHOD.
-		List<String> tokens = getTokens("[!?.]+|[a-zA-Z]+");
-		
-		// loop over each string in tokens
-		for (String string : tokens) {
-			if (this.isWord(string)) {
-				this.numWords++;
-				this.numSyllables += this.countSyllables(string);
-			}
+		String text = getText();
+		TextStatistics stats = TextStatistics.scan(text, 0, text.length());
 
-			if (string.contains("!") || string.contains("?") || string.contains(".")) {
-				this.numSentences++;
-			}
-		}
+		this.numWords = stats.getNumWords();
+		this.numSentences = stats.getNumSentences();
+		this.numSyllables = stats.getNumSyllables();
+		this.readability = new Readability(stats);
+	}
 
-		// check if last token is a word, if so, increase numSentences count
-		if (tokens.size() > 0) {
-			String lastItem = tokens.get(tokens.size() - 1);
-			if (this.isWord(lastItem)) {
-				this.numSentences++;
-			}
-		}
+	
+	/** Return the readability scores counted when the document was created */
+	@Override
+	public Readability getReadability() {
+		return this.readability;
 	}
 
 	
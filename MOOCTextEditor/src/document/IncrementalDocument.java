@@ -0,0 +1,408 @@
+package document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Document that can be edited in place.  The text is kept split into
+ * sentences and the word, syllable and sentence counts of each sentence
+ * are stored.  An edit only rescans the sentences it touches, and the
+ * totals for the whole document are kept up to date so that getting the
+ * counts or the Flesch score after an edit does not process the text.
+ *
+ * The sentences are kept in order in a treap, a binary tree balanced by
+ * random priorities, where each sentence also stores the number of
+ * sentences and characters under it.  The sentences an edit touches are
+ * found, cut out and replaced in O(log n) time for n sentences, plus the
+ * time to rescan them.
+ *
+ * Words, sentences and syllables are counted exactly as in EfficientDocument.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ */
+public class IncrementalDocument extends Document {
+
+	private StringBuilder buffer;  // The current text of the document
+	private Sentence root;  // The root of the tree of sentences, or null if there are none
+	private int seed = 0x2545f491;  // The state of the generator of priorities
+
+	private TextStatistics totals;  // The counts summed over all sentences
+
+	/** Create a new IncrementalDocument from the given text
+	 *
+	 * @param text The initial text of the document
+	 */
+	public IncrementalDocument(String text)
+	{
+		this(new StringBuilder(text));
+	}
+
+	private IncrementalDocument(StringBuilder buffer)
+	{
+		super(buffer);
+		this.buffer = buffer;
+		this.totals = new TextStatistics();
+
+		List<Sentence> sentences = new ArrayList<Sentence>();
+		split(0, buffer.length(), sentences);
+		for (Sentence sentence : sentences) {
+			totals.add(sentence.stats);
+		}
+		root = build(sentences);
+	}
+
+	/** Replace the characters in [start, end) with the replacement text.
+	 * Only the sentences that contain the changed characters are rescanned.
+	 *
+	 * @param start The index of the first character to replace
+	 * @param end The index one past the last character to replace
+	 * @param replacement The text to put in place of the removed characters
+	 */
+	public void replace(int start, int end, String replacement)
+	{
+		if (start < 0 || end < start || end > buffer.length()) {
+			throw new IndexOutOfBoundsException("Invalid edit range [" + start
+					+ ", " + end + ") for document of length " + buffer.length());
+		}
+
+		// find the first sentence touched by the edit.  If the edit starts
+		// right at a sentence boundary, the sentence before it is touched
+		// too, because the edit may extend its punctuation.
+		int[] at = new int[2];
+		int first = count(root);
+		int firstStart = buffer.length();
+		if (start < buffer.length()) {
+			locate(start, at);
+			first = at[0];
+			firstStart = at[1];
+		}
+		if (first > 0 && firstStart == start) {
+			locate(start - 1, at);
+			first = at[0];
+			firstStart = at[1];
+		}
+
+		// find the sentence after the last one touched by the edit.  The
+		// sentence that contains end is included, because the edit may
+		// remove the punctuation that separated it from the one before.
+		int last = count(root);
+		int lastEnd = buffer.length();
+		if (end < buffer.length()) {
+			Sentence sentence = locate(end, at);
+			last = at[0] + 1;
+			lastEnd = at[1] + sentence.length;
+		}
+
+		// cut the touched sentences out of the tree and the totals
+		Sentence[] parts = new Sentence[2];
+		split(root, last, parts);
+		Sentence after = parts[1];
+		split(parts[0], first, parts);
+		Sentence before = parts[0];
+		remove(parts[1]);
+
+		buffer.replace(start, end, replacement);
+
+		// rescan the changed span and put its sentences back
+		List<Sentence> replaced = new ArrayList<Sentence>();
+		split(firstStart, lastEnd - (end - start) + replacement.length(), replaced);
+		for (Sentence sentence : replaced) {
+			totals.add(sentence.stats);
+		}
+		root = merge(merge(before, build(replaced)), after);
+	}
+
+	/** Insert text at the given position
+	 *
+	 * @param position The index to insert at
+	 * @param inserted The text to insert
+	 */
+	public void insert(int position, String inserted)
+	{
+		replace(position, position, inserted);
+	}
+
+	/** Delete the characters in [start, end)
+	 *
+	 * @param start The index of the first character to delete
+	 * @param end The index one past the last character to delete
+	 */
+	public void delete(int start, int end)
+	{
+		replace(start, end, "");
+	}
+
+	/** Return the number of characters in the document */
+	public int length()
+	{
+		return buffer.length();
+	}
+
+	/** Split text[start, end) into sentences that end right after a run of
+	 * sentence-ending punctuation, and add them to the list.  The last
+	 * sentence may end without punctuation.
+	 */
+	private void split(int start, int end, List<Sentence> out)
+	{
+		int sentenceStart = start;
+		int i = start;
+		while (i < end) {
+			if (TextStatistics.isSentenceEnd(buffer.charAt(i))) {
+				do {
+					i++;
+				} while (i < end && TextStatistics.isSentenceEnd(buffer.charAt(i)));
+
+				out.add(new Sentence(buffer, sentenceStart, i));
+				sentenceStart = i;
+			}
+			else {
+				i++;
+			}
+		}
+
+		if (sentenceStart < end) {
+			out.add(new Sentence(buffer, sentenceStart, end));
+		}
+	}
+
+	/** Find the sentence that contains the character at position, which
+	 * must be in the text, and put its index and the index of its first
+	 * character in at[0] and at[1]
+	 *
+	 * @return The sentence
+	 */
+	private Sentence locate(int position, int[] at)
+	{
+		Sentence node = root;
+		int index = 0;
+		int start = 0;
+		while (true) {
+			int leftChars = chars(node.left);
+			if (position < start + leftChars) {
+				node = node.left;
+			}
+			else if (position < start + leftChars + node.length) {
+				at[0] = index + count(node.left);
+				at[1] = start + leftChars;
+				return node;
+			}
+			else {
+				index += count(node.left) + 1;
+				start += leftChars + node.length;
+				node = node.right;
+			}
+		}
+	}
+
+	/** Split a tree into its first k sentences, put in parts[0], and the
+	 * rest, put in parts[1] */
+	private static void split(Sentence node, int k, Sentence[] parts)
+	{
+		if (node == null) {
+			parts[0] = null;
+			parts[1] = null;
+		}
+		else if (count(node.left) >= k) {
+			split(node.left, k, parts);
+			node.left = parts[1];
+			node.update();
+			parts[1] = node;
+		}
+		else {
+			split(node.right, k - count(node.left) - 1, parts);
+			node.right = parts[0];
+			node.update();
+			parts[0] = node;
+		}
+	}
+
+	/** Join two trees, all the sentences of the first before those of the
+	 * second, and return the root */
+	private static Sentence merge(Sentence first, Sentence second)
+	{
+		if (first == null) {
+			return second;
+		}
+		if (second == null) {
+			return first;
+		}
+		if (first.priority > second.priority) {
+			first.right = merge(first.right, second);
+			first.update();
+			return first;
+		}
+		second.left = merge(first, second.left);
+		second.update();
+		return second;
+	}
+
+	/** Return a tree of the sentences, in order, giving each a priority */
+	private Sentence build(List<Sentence> sentences)
+	{
+		Sentence tree = null;
+		for (Sentence sentence : sentences) {
+			seed ^= seed << 13;
+			seed ^= seed >>> 17;
+			seed ^= seed << 5;
+			sentence.priority = seed;
+			tree = merge(tree, sentence);
+		}
+		return tree;
+	}
+
+	/** Remove the counts of every sentence in a tree from the totals */
+	private void remove(Sentence node)
+	{
+		if (node != null) {
+			totals.remove(node.stats);
+			remove(node.left);
+			remove(node.right);
+		}
+	}
+
+	private static int count(Sentence node)
+	{
+		return node == null ? 0 : node.count;
+	}
+
+	private static int chars(Sentence node)
+	{
+		return node == null ? 0 : node.chars;
+	}
+
+	/** Return the readability scores of the current text, from the counts
+	 * kept up to date by each edit */
+	@Override
+	public Readability getReadability()
+	{
+		return new Readability(totals, getNumSentences());
+	}
+
+	/**
+	 * Get the number of sentences in the document.
+	 * Only the last sentence can end without punctuation, so this is the
+	 * number of punctuation runs plus one if the last sentence ends with
+	 * a word.  The root of the tree keeps whether it does.
+	 *
+	 * @return The number of sentences in the document.
+	 */
+	@Override
+	public int getNumSentences()
+	{
+		if (root != null && root.lastEndsWithWord) {
+			return totals.getNumSentenceEnds() + 1;
+		}
+		return totals.getNumSentenceEnds();
+	}
+
+	/**
+	 * Get the number of words in the document.
+	 *
+	 * @return The number of words in the document.
+	 */
+	@Override
+	public int getNumWords()
+	{
+		return totals.getNumWords();
+	}
+
+	/**
+	 * Get the total number of syllables in the document.
+	 *
+	 * @return The number of syllables in the document.
+	 */
+	@Override
+	public int getNumSyllables()
+	{
+		return totals.getNumSyllables();
+	}
+
+	/* A sentence of the document, its length and its counts, and a node of
+	 * the tree of sentences */
+	private static class Sentence {
+		private int length;
+		private TextStatistics stats;
+
+		private Sentence left;  // The sentences before this one in its subtree
+		private Sentence right;  // The sentences after this one in its subtree
+		private int priority;  // Greater than the priority of every sentence below
+		private int count = 1;  // The number of sentences in this subtree
+		private int chars;  // The number of characters in this subtree
+		private boolean lastEndsWithWord;  // true if the last sentence in this subtree ends with a word
+
+		public Sentence(CharSequence text, int start, int end)
+		{
+			this.length = end - start;
+			this.stats = TextStatistics.scan(text, start, end);
+			this.chars = length;
+			this.lastEndsWithWord = stats.endsWithWord();
+		}
+
+		/** Recompute count, chars and lastEndsWithWord from the children */
+		private void update()
+		{
+			count = 1 + IncrementalDocument.count(left) + IncrementalDocument.count(right);
+			chars = length + IncrementalDocument.chars(left) + IncrementalDocument.chars(right);
+			lastEndsWithWord = right == null ? stats.endsWithWord() : right.lastEndsWithWord;
+		}
+	}
+
+	// Can be used for testing
+	public static void main(String[] args)
+	{
+		// the counts after editing should match a fresh EfficientDocument
+		IncrementalDocument doc = new IncrementalDocument("");
+		doc.insert(0, "How many???  Right?");
+		doc.insert(0, "This is a test.  ");
+		doc.insert(doc.getText().indexOf("Right"), "Senteeeeeeeeeences are here... there should be 5!  ");
+		testCase(doc, 16, 13, 5);
+
+		doc.delete(0, doc.length());
+		testCase(doc, 0, 0, 0);
+
+		// removing punctuation joins sentences, adding it splits them
+		doc = new IncrementalDocument("many???  Senteeeeeeeeeences are");
+		doc.delete(4, 7);
+		testCase(doc, 6, 3, 1);
+		doc.insert(4, "!");
+		testCase(doc, 6, 3, 2);
+		doc.insert(doc.length(), ".");
+		testCase(doc, 6, 3, 2);
+
+		// replacing inside a word changes only that word's syllables
+		doc = new IncrementalDocument("Sentence");
+		doc.replace(0, 8, "Sentences?!");
+		testCase(doc, 3, 1, 1);
+		doc.replace(1, 1, "egue ");
+		testCase(doc, 5, 2, 1);
+
+		// typing one character at a time
+		String text = "Lorem ipsum dolor sit amet, qui ex choro quodsi moderatius, "
+				+ "nam dolores explicari forensibus ad.";
+		doc = new IncrementalDocument("");
+		for (int i = 0; i < text.length(); i++) {
+			doc.insert(i, text.substring(i, i + 1));
+		}
+		testCase(doc, 32, 15, 1);
+
+		// random edits anywhere in the text, checked against the counts of
+		// the whole text after each one
+		java.util.Random random = new java.util.Random(42);
+		String[] pieces = {"a", " ", ".", "?! ", "Cat sat.", "the", "!!"};
+		doc = new IncrementalDocument("");
+		int failures = 0;
+		for (int i = 0; i < 2000; i++) {
+			int start = random.nextInt(doc.length() + 1);
+			int end = Math.min(doc.length(), start + random.nextInt(4));
+			String replacement = random.nextInt(3) == 0 ? "" : pieces[random.nextInt(pieces.length)];
+			doc.replace(start, end, replacement);
+			EfficientDocument expected = new EfficientDocument(doc.getText());
+			if (doc.getNumSyllables() != expected.getNumSyllables()
+					|| doc.getNumWords() != expected.getNumWords()
+					|| doc.getNumSentences() != expected.getNumSentences()) {
+				failures++;
+			}
+		}
+		System.out.println("Random edits: " + failures + " of 2000 gave the wrong counts");
+	}
+}
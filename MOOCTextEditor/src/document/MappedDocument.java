@@ -0,0 +1,218 @@
+package document;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A Document that is read straight from a file.  The file is memory-mapped
+ * and its bytes are only decoded as they are scanned, so counting the words,
+ * sentences and syllables of a very large file needs no copy of the text
+ * on the heap.  The text is only decoded into a String if getText() is
+ * called.
+ *
+ * Only the ASCII letters and the characters . ! and ? take part in counting,
+ * and in the charsets accepted (US-ASCII, UTF-8, ISO-8859-* and
+ * windows-125x) every other character is encoded with bytes that are none
+ * of those.  The mapped bytes can therefore be scanned one byte per
+ * character and give the same counts as scanning the decoded text.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ */
+public class MappedDocument extends Document {
+
+	private int numWords = 0;  // The number of words in the document
+	private int numSentences = 0;  // The number of sentences in the document
+	private int numSyllables = 0;  // The number of syllables in the document
+	private Readability readability;  // All the scores, from the same pass
+
+	/** Create a new MappedDocument from a UTF-8 text file
+	 *
+	 * @param path The file to read
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public MappedDocument(Path path) throws IOException
+	{
+		this(path, StandardCharsets.UTF_8);
+	}
+
+	/** Create a new MappedDocument from a text file
+	 *
+	 * @param path The file to read
+	 * @param charset The charset of the file: US-ASCII, UTF-8, one of the
+	 *   ISO-8859 charsets or one of windows-1250 to windows-1258
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public MappedDocument(Path path, Charset charset) throws IOException
+	{
+		this(path, charset, ParallelDocument.DEFAULT_CHUNK_SIZE);
+	}
+
+	/** Create a new MappedDocument from a text file, choosing how finely
+	 * the file is split for counting in parallel
+	 *
+	 * @param path The file to read
+	 * @param charset The charset of the file: US-ASCII, UTF-8, one of the
+	 *   ISO-8859 charsets or one of windows-1250 to windows-1258
+	 * @param chunkSize The number of characters below which a chunk is
+	 *   scanned without splitting it further.  Use Integer.MAX_VALUE to
+	 *   scan the whole file on the calling thread.
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public MappedDocument(Path path, Charset charset, int chunkSize) throws IOException
+	{
+		super(new MappedText(map(path), charset));
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+		}
+
+		TextStatistics stats = ParallelDocument.scan(getCharSequence(), chunkSize);
+		this.numWords = stats.getNumWords();
+		this.numSentences = stats.getNumSentences();
+		this.numSyllables = stats.getNumSyllables();
+		this.readability = new Readability(stats);
+	}
+
+	private static MappedByteBuffer map(Path path) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("File is too large to map as one document: " + path);
+			}
+			// the mapping stays valid after the channel is closed
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+
+	/** Return the readability scores counted when the document was created */
+	@Override
+	public Readability getReadability() {
+		return this.readability;
+	}
+
+	@Override
+	public int getNumSentences() {
+		return this.numSentences;
+	}
+
+	@Override
+	public int getNumWords() {
+	    return this.numWords;
+	}
+
+	@Override
+	public int getNumSyllables() {
+        return this.numSyllables;
+	}
+
+	/* The bytes of a mapped file seen as a CharSequence with one char per
+	 * byte.  Absolute reads do not change the buffer, so it can be read
+	 * from several threads at once. */
+	private static class MappedText implements CharSequence {
+
+		private final MappedByteBuffer buffer;
+		private final Charset charset;
+		private final int start;
+		private final int end;
+
+		public MappedText(MappedByteBuffer buffer, Charset charset)
+		{
+			this(buffer, charset, 0, buffer.limit());
+			if (!isAsciiCompatible(charset)) {
+				throw new IllegalArgumentException("Charset is not known to encode "
+						+ "only ASCII as ASCII bytes: " + charset);
+			}
+		}
+
+		private MappedText(MappedByteBuffer buffer, Charset charset, int start, int end)
+		{
+			this.buffer = buffer;
+			this.charset = charset;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public int length()
+		{
+			return end - start;
+		}
+
+		@Override
+		public char charAt(int index)
+		{
+			if (index < 0 || index >= end - start) {
+				throw new IndexOutOfBoundsException("index " + index + ", length " + length());
+			}
+			return (char) (buffer.get(start + index) & 0xff);
+		}
+
+		@Override
+		public CharSequence subSequence(int from, int to)
+		{
+			if (from < 0 || to < from || to > end - start) {
+				throw new IndexOutOfBoundsException("[" + from + ", " + to + "), length " + length());
+			}
+			return new MappedText(buffer, charset, start + from, start + to);
+		}
+
+		/** Decode the bytes into a String using the file's charset */
+		@Override
+		public String toString()
+		{
+			ByteBuffer bytes = buffer.duplicate();
+			bytes.position(start);
+			bytes.limit(end);
+			return charset.decode(bytes).toString();
+		}
+
+		/** Is a byte below 0x80 always the ASCII character, and never part
+		 * of another character?  Only charsets known to be so are accepted.
+		 * Shift_JIS, Big5 and others encode ASCII the same way, but also
+		 * use ASCII bytes inside their multibyte characters. */
+		private static boolean isAsciiCompatible(Charset charset)
+		{
+			String name = charset.name();
+			return name.equals("US-ASCII") || name.equals("UTF-8")
+					|| name.startsWith("ISO-8859-") || name.matches("windows-125[0-8]");
+		}
+	}
+
+	// Can be used for testing
+	public static void main(String[] args) throws IOException
+	{
+		Path file = Files.createTempFile("mapped", ".txt");
+		try {
+			Files.write(file, ("This is a test.  How many???  Senteeeeeeeeeences are "
+					+ "here... there should be 5!  Right?").getBytes(StandardCharsets.UTF_8));
+			testCase(new MappedDocument(file), 16, 13, 5);
+
+			Files.write(file, new byte[0]);
+			testCase(new MappedDocument(file), 0, 0, 0);
+
+			// non-ASCII characters are neither letters nor punctuation
+			Files.write(file, "Caf\u00e9 na\u00efve \u2014 r\u00e9sum\u00e9?".getBytes(StandardCharsets.UTF_8));
+			testCase(new MappedDocument(file), 4, 5, 1);
+
+			// in Shift_JIS and Big5 multibyte characters contain ASCII bytes
+			for (String name : new String[] {"Shift_JIS", "Big5"}) {
+				try {
+					new MappedDocument(file, Charset.forName(name));
+					System.out.println("FAILED: " + name + " was accepted");
+				}
+				catch (IllegalArgumentException e) {
+					System.out.println("Rejected " + name);
+				}
+			}
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+}
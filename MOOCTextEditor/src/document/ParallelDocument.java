@@ -0,0 +1,163 @@
+package document;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A Document that counts words, sentences and syllables in parallel.
+ * The text is split recursively into chunks on the common ForkJoinPool,
+ * each chunk is scanned on its own and the counts are merged in order.
+ *
+ * Chunks are only split between tokens, never inside a word or a run of
+ * punctuation.  A chunk may still start or end in the middle of a sentence:
+ * sentences are counted by their ending punctuation, and only the last
+ * token of the whole text decides whether an unterminated final sentence
+ * is counted, so merging the chunk counts gives exactly the same result
+ * as EfficientDocument.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ */
+public class ParallelDocument extends Document {
+
+	// Texts shorter than this are scanned on the calling thread
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+	private int numWords = 0;  // The number of words in the document
+	private int numSentences = 0;  // The number of sentences in the document
+	private int numSyllables = 0;  // The number of syllables in the document
+	private Readability readability;  // All the scores, from the same pass
+
+	/** Create a new ParallelDocument using the default chunk size
+	 *
+	 * @param text The full text of the Document.
+	 */
+	public ParallelDocument(String text)
+	{
+		this(text, DEFAULT_CHUNK_SIZE);
+	}
+
+	/** Create a new ParallelDocument
+	 *
+	 * @param text The full text of the Document.
+	 * @param chunkSize The number of characters below which a chunk is
+	 *   scanned without splitting it further
+	 */
+	public ParallelDocument(String text, int chunkSize)
+	{
+		super(text);
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+		}
+
+		TextStatistics stats = scan(text, chunkSize);
+		this.numWords = stats.getNumWords();
+		this.numSentences = stats.getNumSentences();
+		this.numSyllables = stats.getNumSyllables();
+		this.readability = new Readability(stats);
+	}
+
+	/** Count the whole text in parallel on the common ForkJoinPool
+	 *
+	 * @param text The text to scan.  It must not change while being scanned.
+	 * @param chunkSize The number of characters below which a chunk is
+	 *   scanned without splitting it further
+	 * @return The statistics for the whole text
+	 */
+	static TextStatistics scan(CharSequence text, int chunkSize)
+	{
+		if (text.length() <= chunkSize) {
+			return TextStatistics.scan(text, 0, text.length());
+		}
+		return ForkJoinPool.commonPool().invoke(
+				new ScanTask(text, 0, text.length(), chunkSize));
+	}
+
+	/** Return the readability scores counted when the document was created */
+	@Override
+	public Readability getReadability() {
+		return this.readability;
+	}
+
+	@Override
+	public int getNumSentences() {
+		return this.numSentences;
+	}
+
+	@Override
+	public int getNumWords() {
+		return this.numWords;
+	}
+
+	@Override
+	public int getNumSyllables() {
+		return this.numSyllables;
+	}
+
+	/* Scans text[start, end), splitting it in two while it is larger
+	 * than chunkSize */
+	private static class ScanTask extends RecursiveTask<TextStatistics> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final CharSequence text;
+		private final int start;
+		private final int end;
+		private final int chunkSize;
+
+		public ScanTask(CharSequence text, int start, int end, int chunkSize)
+		{
+			this.text = text;
+			this.start = start;
+			this.end = end;
+			this.chunkSize = chunkSize;
+		}
+
+		@Override
+		protected TextStatistics compute()
+		{
+			int split = end - start > chunkSize ? findSplit() : -1;
+			if (split < 0) {
+				return TextStatistics.scan(text, start, end);
+			}
+
+			ScanTask right = new ScanTask(text, split, end, chunkSize);
+			right.fork();
+			TextStatistics stats = new ScanTask(text, start, split, chunkSize).compute();
+			stats.add(right.join());
+			return stats;
+		}
+
+		/** Return the first position at or after the middle of the chunk
+		 * that does not split a token, or -1 if there is none. */
+		private int findSplit()
+		{
+			for (int i = start + (end - start) / 2; i < end; i++) {
+				if (TextStatistics.isTokenBoundary(text, i)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+	}
+
+	// Can be used for testing
+	public static void main(String[] args)
+	{
+		// a chunk size of 1 splits at every token boundary
+		testCase(new ParallelDocument("This is a test.  How many???  "
+				+ "Senteeeeeeeeeences are here... there should be 5!  Right?", 1),
+				16, 13, 5);
+		testCase(new ParallelDocument("", 1), 0, 0, 0);
+		testCase(new ParallelDocument("sentence, with, lots, of, commas.!  "
+				+ "(And some poaren)).  The output is: 7.5.", 1), 15, 11, 4);
+		testCase(new ParallelDocument("many???  Senteeeeeeeeeences are", 1), 6, 3, 2);
+		testCase(new ParallelDocument("Here is a series of test sentences. Your program should "
+				+ "find 3 sentences, 33 words, and 49 syllables. Not every word will have "
+				+ "the correct amount of syllables (example, for example), "
+				+ "but most of them will.", 7), 49, 33, 3);
+		testCase(new ParallelDocument("Segue", 1), 2, 1, 1);
+		testCase(new ParallelDocument("Sentences?!", 1), 3, 1, 1);
+		testCase(new ParallelDocument("Lorem ipsum dolor sit amet, qui ex choro quodsi moderatius, "
+				+ "nam dolores explicari forensibus ad."), 32, 15, 1);
+	}
+}
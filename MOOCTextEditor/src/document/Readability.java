@@ -0,0 +1,159 @@
+package document;
+
+/**
+ * The readability scores of a text, all computed from the counts gathered
+ * in one pass over it.  Words, sentences and syllables are counted as in
+ * EfficientDocument; see TextStatistics for the other counts.
+ *
+ * Like Document.getFleschScore, a score is NaN or infinite if the text has
+ * no words or no sentences.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ */
+public class Readability {
+
+	private int numWords;
+	private int numSentences;
+	private int numSyllables;
+	private int numLetters;
+	private int numCharacters;
+	private int numPolysyllables;
+	private int numComplexWords;
+
+	/** Create the scores for the given statistics */
+	Readability(TextStatistics stats)
+	{
+		this(stats, stats.getNumSentences());
+	}
+
+	/** Create the scores for the given statistics, with a sentence count
+	 * worked out by the caller */
+	Readability(TextStatistics stats, int numSentences)
+	{
+		this.numWords = stats.getNumWords();
+		this.numSentences = numSentences;
+		this.numSyllables = stats.getNumSyllables();
+		this.numLetters = stats.getNumLetters();
+		this.numCharacters = stats.getNumCharacters();
+		this.numPolysyllables = stats.getNumPolysyllables();
+		this.numComplexWords = stats.getNumComplexWords();
+	}
+
+	/** Scan the text once and return its scores
+	 *
+	 * @param text The text to score
+	 * @return The readability scores of the text
+	 */
+	public static Readability of(CharSequence text)
+	{
+		return new Readability(TextStatistics.scan(text, 0, text.length()));
+	}
+
+	/** Return the Flesch reading ease score, the same as Document.getFleschScore */
+	public double getFleschScore()
+	{
+		return 206.835
+				- 1.015 * numWords / numSentences
+				- 84.6 * numSyllables / numWords;
+	}
+
+	/** Return the Flesch-Kincaid grade level */
+	public double getFleschKincaidGrade()
+	{
+		return 0.39 * numWords / numSentences
+				+ 11.8 * numSyllables / numWords
+				- 15.59;
+	}
+
+	/** Return the Gunning fog index, which counts words of three or more
+	 * syllables as complex, ignoring -es, -ed and -ing suffixes */
+	public double getGunningFog()
+	{
+		return 0.4 * ((double) numWords / numSentences
+				+ 100.0 * numComplexWords / numWords);
+	}
+
+	/** Return the SMOG grade, scaling the number of polysyllables to 30 sentences */
+	public double getSmogGrade()
+	{
+		return 1.0430 * Math.sqrt(numPolysyllables * 30.0 / numSentences) + 3.1291;
+	}
+
+	/** Return the Coleman-Liau index, which uses letters instead of syllables */
+	public double getColemanLiau()
+	{
+		double lettersPer100Words = 100.0 * numLetters / numWords;
+		double sentencesPer100Words = 100.0 * numSentences / numWords;
+		return 0.0588 * lettersPer100Words - 0.296 * sentencesPer100Words - 15.8;
+	}
+
+	public int getNumWords()
+	{
+		return numWords;
+	}
+
+	public int getNumSentences()
+	{
+		return numSentences;
+	}
+
+	public int getNumSyllables()
+	{
+		return numSyllables;
+	}
+
+	/** Return the number of letters in all the words */
+	public int getNumLetters()
+	{
+		return numLetters;
+	}
+
+	/** Return the number of characters in the text */
+	public int getNumCharacters()
+	{
+		return numCharacters;
+	}
+
+	/** Return the number of words with three or more syllables */
+	public int getNumPolysyllables()
+	{
+		return numPolysyllables;
+	}
+
+	/** Return the number of complex words used by the Gunning fog index */
+	public int getNumComplexWords()
+	{
+		return numComplexWords;
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("Flesch %.2f, Flesch-Kincaid %.2f, Gunning fog %.2f, SMOG %.2f, "
+				+ "Coleman-Liau %.2f", getFleschScore(), getFleschKincaidGrade(), getGunningFog(),
+				getSmogGrade(), getColemanLiau());
+	}
+
+	// Can be used for testing
+	public static void main(String[] args)
+	{
+		// 10 words, 2 sentences, 24 syllables, 71 letters
+		// polysyllables: interesting, remarkably, beautiful, elephants, gathering
+		// gathering is not complex once -ing is ignored
+		Readability r = Readability.of("Interesting stories are remarkably beautiful. "
+				+ "Elephants were gathering near water.");
+		check("words", 10, r.getNumWords());
+		check("sentences", 2, r.getNumSentences());
+		check("syllables", 24, r.getNumSyllables());
+		check("letters", 71, r.getNumLetters());
+		check("polysyllables", 5, r.getNumPolysyllables());
+		check("complex words", 4, r.getNumComplexWords());
+		System.out.println(r);
+	}
+
+	private static void check(String what, int expected, int found)
+	{
+		System.out.println(what + ": " + found
+				+ (expected == found ? " passed" : " FAILED, expected " + expected));
+	}
+}
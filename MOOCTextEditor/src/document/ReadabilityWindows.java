@@ -0,0 +1,254 @@
+package document;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Flesch scores for every window of consecutive sentences or words in a
+ * text, showing where the text gets harder or easier to read.
+ *
+ * The text is scanned once to record the syllables of each word and where
+ * sentences end.  Scores are then produced by sliding a window over those
+ * counts: each step adds the unit entering the window and subtracts the
+ * one leaving it, so every window costs O(1) no matter how big it is, and
+ * the text is never rescanned.
+ *
+ * Words, sentences and syllables are counted as in EfficientDocument, so
+ * a window that covers the whole text has the same score as the document.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ */
+public class ReadabilityWindows {
+
+	private int numWords = 0;
+	private int[] wordStarts = new int[16];  // The index in the text of each word
+	private int[] wordSyllables = new int[16];  // The syllables in each word
+	private int[] endsAfterWord = new int[16];  // The punctuation runs between each word and the next
+	private int leadingEnds = 0;  // The punctuation runs before the first word
+
+	private int numSentences = 0;
+	private int[] sentenceStarts = new int[16];  // The index in the text of each sentence
+	private int[] sentenceWords = new int[16];  // The words in each sentence
+	private int[] sentenceSyllables = new int[16];  // The syllables in each sentence
+
+	/** Scan the text and record the counts for each word and sentence
+	 *
+	 * @param text The text to score
+	 */
+	public ReadabilityWindows(CharSequence text)
+	{
+		int sentenceStart = 0;
+		int wordsInSentence = 0;
+		int syllablesInSentence = 0;
+
+		int i = 0;
+		int end = text.length();
+		while (i < end) {
+			char c = text.charAt(i);
+			if (TextStatistics.isLetter(c)) {
+				int wordStart = i;
+				do {
+					i++;
+				} while (i < end && TextStatistics.isLetter(text.charAt(i)));
+
+				int syllables = SyllableCounter.count(text, wordStart, i);
+				addWord(wordStart, syllables);
+				wordsInSentence++;
+				syllablesInSentence += syllables;
+			}
+			else if (TextStatistics.isSentenceEnd(c)) {
+				do {
+					i++;
+				} while (i < end && TextStatistics.isSentenceEnd(text.charAt(i)));
+
+				if (numWords > 0) {
+					endsAfterWord[numWords - 1]++;
+				}
+				else {
+					leadingEnds++;
+				}
+				addSentence(sentenceStart, wordsInSentence, syllablesInSentence);
+				sentenceStart = i;
+				wordsInSentence = 0;
+				syllablesInSentence = 0;
+			}
+			else {
+				i++;
+			}
+		}
+
+		// the last words count as a sentence even without punctuation
+		if (wordsInSentence > 0) {
+			addSentence(sentenceStart, wordsInSentence, syllablesInSentence);
+		}
+	}
+
+	private void addWord(int start, int syllables)
+	{
+		if (numWords == wordStarts.length) {
+			int capacity = 2 * numWords;
+			wordStarts = Arrays.copyOf(wordStarts, capacity);
+			wordSyllables = Arrays.copyOf(wordSyllables, capacity);
+			endsAfterWord = Arrays.copyOf(endsAfterWord, capacity);
+		}
+		wordStarts[numWords] = start;
+		wordSyllables[numWords] = syllables;
+		endsAfterWord[numWords] = 0;
+		numWords++;
+	}
+
+	private void addSentence(int start, int words, int syllables)
+	{
+		if (numSentences == sentenceStarts.length) {
+			int capacity = 2 * numSentences;
+			sentenceStarts = Arrays.copyOf(sentenceStarts, capacity);
+			sentenceWords = Arrays.copyOf(sentenceWords, capacity);
+			sentenceSyllables = Arrays.copyOf(sentenceSyllables, capacity);
+		}
+		sentenceStarts[numSentences] = start;
+		sentenceWords[numSentences] = words;
+		sentenceSyllables[numSentences] = syllables;
+		numSentences++;
+	}
+
+	/** Return the Flesch score of every window of size consecutive
+	 * sentences.  Window i starts at sentence i.  If the text has fewer
+	 * sentences than size, there is one window covering all of them.
+	 *
+	 * @param size The number of sentences in each window
+	 * @return The score of each window, in order
+	 */
+	public double[] fleschBySentences(int size)
+	{
+		if (size < 1) {
+			throw new IllegalArgumentException("Window size must be positive: " + size);
+		}
+		if (numSentences == 0) {
+			return new double[0];
+		}
+		size = Math.min(size, numSentences);
+
+		double[] scores = new double[numSentences - size + 1];
+		int words = 0;
+		int syllables = 0;
+		for (int i = 0; i < numSentences; i++) {
+			words += sentenceWords[i];
+			syllables += sentenceSyllables[i];
+			if (i >= size) {
+				words -= sentenceWords[i - size];
+				syllables -= sentenceSyllables[i - size];
+			}
+			if (i >= size - 1) {
+				scores[i - size + 1] = flesch(words, size, syllables);
+			}
+		}
+		return scores;
+	}
+
+	/** Return the Flesch score of every window of size consecutive words.
+	 * Window i starts at word i.  The sentences in a window are the
+	 * punctuation runs after its words, plus one if its last word does not
+	 * end a sentence.  The first window also counts the punctuation runs
+	 * before the first word.  If the text has fewer words than size, there
+	 * is one window covering all of them.
+	 *
+	 * @param size The number of words in each window
+	 * @return The score of each window, in order
+	 */
+	public double[] fleschByWords(int size)
+	{
+		if (size < 1) {
+			throw new IllegalArgumentException("Window size must be positive: " + size);
+		}
+		if (numWords == 0) {
+			return new double[0];
+		}
+		size = Math.min(size, numWords);
+
+		double[] scores = new double[numWords - size + 1];
+		int syllables = 0;
+		int sentenceEnds = leadingEnds;
+		for (int i = 0; i < numWords; i++) {
+			syllables += wordSyllables[i];
+			sentenceEnds += endsAfterWord[i];
+			if (i >= size) {
+				syllables -= wordSyllables[i - size];
+				sentenceEnds -= endsAfterWord[i - size];
+				if (i == size) {
+					sentenceEnds -= leadingEnds;
+				}
+			}
+			if (i >= size - 1) {
+				int sentences = endsAfterWord[i] == 0 ? sentenceEnds + 1 : sentenceEnds;
+				scores[i - size + 1] = flesch(size, sentences, syllables);
+			}
+		}
+		return scores;
+	}
+
+	private static double flesch(int words, int sentences, int syllables)
+	{
+		return 206.835
+				- 1.015 * words / sentences
+				- 84.6 * syllables / words;
+	}
+
+	/** Return the number of words in the text */
+	public int getNumWords()
+	{
+		return numWords;
+	}
+
+	/** Return the number of sentences in the text */
+	public int getNumSentences()
+	{
+		return numSentences;
+	}
+
+	/** Return the index in the text where word i starts, e.g. to find the
+	 * text covered by a window from fleschByWords */
+	public int getWordStart(int i)
+	{
+		if (i < 0 || i >= numWords) {
+			throw new IndexOutOfBoundsException("Word " + i + " of " + numWords);
+		}
+		return wordStarts[i];
+	}
+
+	/** Return the index in the text where sentence i starts, e.g. to find
+	 * the text covered by a window from fleschBySentences */
+	public int getSentenceStart(int i)
+	{
+		if (i < 0 || i >= numSentences) {
+			throw new IndexOutOfBoundsException("Sentence " + i + " of " + numSentences);
+		}
+		return sentenceStarts[i];
+	}
+
+	/** Print the score of each window of a text file, one window per line
+	 * with the index where the window starts.
+	 *
+	 * Usage: java document.ReadabilityWindows file (sentences|words) size
+	 */
+	public static void main(String[] args) throws Exception
+	{
+		if (args.length != 3 || !(args[1].equals("sentences") || args[1].equals("words"))) {
+			System.err.println("Usage: java document.ReadabilityWindows file (sentences|words) size");
+			System.exit(2);
+		}
+
+		String text = new String(Files.readAllBytes(Paths.get(args[0])), "UTF-8");
+		ReadabilityWindows windows = new ReadabilityWindows(text);
+		int size = Integer.parseInt(args[2]);
+
+		boolean bySentences = args[1].equals("sentences");
+		double[] scores = bySentences ? windows.fleschBySentences(size) : windows.fleschByWords(size);
+		StringBuilder out = new StringBuilder();
+		for (int i = 0; i < scores.length; i++) {
+			int start = bySentences ? windows.getSentenceStart(i) : windows.getWordStart(i);
+			out.append(start).append('\t').append(String.format("%.2f", scores[i])).append('\n');
+		}
+		System.out.print(out);
+	}
+}
@@ -0,0 +1,58 @@
+/**
+ *
+ */
+package document;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests that the windows of ReadabilityWindows agree with the scores of
+ * the whole document and of its parts.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ *
+ */
+public class ReadabilityWindowsTester {
+
+	private static final String[] TEXTS = {
+		"This is a test.  How many???  Senteeeeeeeeeences are here... there should be 5!  Right?",
+		"... Hello there. Bye",
+		"?! Hello there. Bye!",
+		"Sentence",
+		"Lorem ipsum dolor sit amet, qui ex choro quodsi moderatius, nam dolores explicari forensibus ad."
+	};
+
+	/** Test that a window covering the whole text has the score of the
+	 * document, including texts that start with punctuation */
+	@Test
+	public void testWholeTextWindow()
+	{
+		for (String text : TEXTS) {
+			ReadabilityWindows windows = new ReadabilityWindows(text);
+			double expected = new EfficientDocument(text).getFleschScore();
+			double[] byWords = windows.fleschByWords(windows.getNumWords());
+			double[] bySentences = windows.fleschBySentences(windows.getNumSentences());
+			assertEquals(text, 1, byWords.length);
+			assertEquals(text, 1, bySentences.length);
+			assertEquals(text, expected, byWords[0], 1e-9);
+			assertEquals(text, expected, bySentences[0], 1e-9);
+		}
+	}
+
+	/** Test that each window of words has the score of the text it covers,
+	 * with the leading punctuation only in the first window */
+	@Test
+	public void testWordWindows()
+	{
+		String text = "... Hello there. Bye now! Go";
+		ReadabilityWindows windows = new ReadabilityWindows(text);
+		double[] scores = windows.fleschByWords(2);
+		assertEquals(4, scores.length);
+		assertEquals("first", new EfficientDocument("... Hello there.").getFleschScore(), scores[0], 1e-9);
+		assertEquals("second", new EfficientDocument("there. Bye").getFleschScore(), scores[1], 1e-9);
+		assertEquals("third", new EfficientDocument("Bye now!").getFleschScore(), scores[2], 1e-9);
+		assertEquals("last", new EfficientDocument("now! Go").getFleschScore(), scores[3], 1e-9);
+	}
+}
@@ -0,0 +1,81 @@
+package document;
+
+/**
+ * Counts syllables in words that are ranges of a CharSequence, without
+ * creating a String for the word.
+ *
+ * Syllables are counted with the rules described in Document.countSyllables:
+ * each contiguous sequence of one or more vowels (including y) is a
+ * syllable, except that a lone lower case "e" at the end of a word is not
+ * counted unless the word has no other syllables.  Vowels are found with
+ * a lookup table rather than a search of a String of vowels.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ */
+public class SyllableCounter {
+
+	// VOWELS[c] is true if the char c is a vowel
+	private static final boolean[] VOWELS = new boolean[128];
+	static {
+		for (char c : "aeiouyAEIOUY".toCharArray()) {
+			VOWELS[c] = true;
+		}
+	}
+
+	/** Return the number of syllables in text[start, end)
+	 *
+	 * @param text The text containing the word
+	 * @param start The index of the first character of the word
+	 * @param end The index one past the last character of the word
+	 * @return The number of syllables in the word
+	 */
+	public static int count(CharSequence text, int start, int end)
+	{
+		int syllableCount = 0;
+		boolean prevIsVowel = false;
+
+		// each contiguous sequence of one or more vowels is a syllable
+		for (int i = start; i < end; i++) {
+			boolean isVowel = isVowel(text.charAt(i));
+			if (isVowel && !prevIsVowel) {
+				syllableCount++;
+			}
+			prevIsVowel = isVowel;
+		}
+
+		// a lone "e" at the end of a word is not considered a syllable
+		// unless the word has no other syllables
+		if (end - start >= 2 && text.charAt(end - 1) == 'e'
+				&& !isVowel(text.charAt(end - 2)) && syllableCount > 1) {
+			syllableCount--;
+		}
+
+		return syllableCount;
+	}
+
+	/** Return true if c is one of the vowels used for counting syllables
+	 * (y is considered a vowel). */
+	public static boolean isVowel(char c)
+	{
+		return c < VOWELS.length && VOWELS[c];
+	}
+
+	// Can be used for testing
+	public static void main(String[] args)
+	{
+		String text = "segue sentence the Senteeeeeeeeeences the segue y";
+		int[] expected = {2, 2, 1, 3, 1, 2, 1};
+
+		int start = 0;
+		for (int expect : expected) {
+			int end = text.indexOf(' ', start);
+			if (end < 0) {
+				end = text.length();
+			}
+			int found = count(text, start, end);
+			System.out.println(text.substring(start, end) + ": " + found
+					+ (found == expect ? " passed" : " FAILED, expected " + expect));
+			start = end + 1;
+		}
+	}
+}
@@ -0,0 +1,232 @@
+package document;
+
+/**
+ * Word, sentence and syllable counts for a span of text, gathered in a
+ * single pass over the characters without creating any token objects.
+ * The same pass also counts the letters, characters, polysyllabic words 
+ * and complex words needed by the scores in Readability.
+ *
+ * Tokens follow the same rules as the regex "[!?.]+|[a-zA-Z]+" used by
+ * EfficientDocument: a word is a maximal run of the letters a-z or A-Z,
+ * and a sentence ends at each maximal run of the characters ! ? and .
+ * The last run of words in the text also counts as a sentence even if it
+ * is not followed by punctuation.
+ *
+ * Spans can be scanned one after another, or scanned separately and their
+ * statistics added together in order, as long as no token is split across
+ * the boundary between them.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ */
+class TextStatistics {
+
+	private int numWords = 0;  // The number of words seen so far
+	private int numSyllables = 0;  // The number of syllables seen so far
+	private int numSentenceEnds = 0;  // The number of punctuation runs seen so far
+	private int numLetters = 0;  // The number of letters in words seen so far
+	private int numCharacters = 0;  // The number of characters scanned so far
+	private int numPolysyllables = 0;  // The number of words with 3 or more syllables
+	private int numComplexWords = 0;  // Polysyllables still 3+ syllables without -es, -ed, -ing
+	private boolean endsWithWord = false;  // true if the last token seen was a word
+
+	/** Scan text[start, end) and return its statistics
+	 *
+	 * @param text The text to scan
+	 * @param start The index of the first character to scan
+	 * @param end The index one past the last character to scan
+	 * @return The statistics for that span of text
+	 */
+	public static TextStatistics scan(CharSequence text, int start, int end)
+	{
+		TextStatistics stats = new TextStatistics();
+		stats.add(text, start, end);
+		return stats;
+	}
+
+	/** Scan text[start, end) and add its tokens to these statistics.
+	 * The span must not start in the middle of a token.
+	 *
+	 * @param text The text to scan
+	 * @param start The index of the first character to scan
+	 * @param end The index one past the last character to scan
+	 */
+	public void add(CharSequence text, int start, int end)
+	{
+		numCharacters += end - start;
+
+		int i = start;
+		while (i < end) {
+			char c = text.charAt(i);
+			if (isLetter(c)) {
+				int wordStart = i;
+				do {
+					i++;
+				} while (i < end && isLetter(text.charAt(i)));
+
+				int syllables = SyllableCounter.count(text, wordStart, i);
+
+				numWords++;
+				numSyllables += syllables;
+				numLetters += i - wordStart;
+				if (syllables >= 3) {
+					numPolysyllables++;
+					if (syllables - suffixSyllables(text, wordStart, i) >= 3) {
+						numComplexWords++;
+					}
+				}
+				endsWithWord = true;
+			}
+			else if (isSentenceEnd(c)) {
+				do {
+					i++;
+				} while (i < end && isSentenceEnd(text.charAt(i)));
+
+				numSentenceEnds++;
+				endsWithWord = false;
+			}
+			else {
+				i++;
+			}
+		}
+	}
+
+	/** Add the statistics of the span of text that directly follows the 
+	 * span these statistics were counted from.
+	 *
+	 * @param next The statistics of the following span
+	 */
+	public void add(TextStatistics next)
+	{
+		numWords += next.numWords;
+		numSyllables += next.numSyllables;
+		numSentenceEnds += next.numSentenceEnds;
+		numLetters += next.numLetters;
+		numCharacters += next.numCharacters;
+		numPolysyllables += next.numPolysyllables;
+		numComplexWords += next.numComplexWords;
+
+		// the last token is in next, unless next has no tokens at all
+		if (next.numWords > 0 || next.numSentenceEnds > 0) {
+			endsWithWord = next.endsWithWord;
+		}
+	}
+
+	/** Remove statistics that were added earlier, e.g. those of a span of
+	 * text that has been deleted.  Whether the text ends with a word is
+	 * not changed; the caller must track that itself.
+	 *
+	 * @param old The statistics to remove
+	 */
+	void remove(TextStatistics old)
+	{
+		numWords -= old.numWords;
+		numSyllables -= old.numSyllables;
+		numSentenceEnds -= old.numSentenceEnds;
+		numLetters -= old.numLetters;
+		numCharacters -= old.numCharacters;
+		numPolysyllables -= old.numPolysyllables;
+		numComplexWords -= old.numComplexWords;
+	}
+
+	/** Return 1 if the word text[start, end) ends with an -es, -ed or -ing
+	 * suffix that forms a syllable of its own, and 0 otherwise.  The 
+	 * Gunning fog index does not count such a suffix towards a complex word.
+	 */
+	private static int suffixSyllables(CharSequence text, int start, int end)
+	{
+		int length = end - start;
+		if (length > 3 && text.charAt(end - 2) == 'e'
+				&& (text.charAt(end - 1) == 's' || text.charAt(end - 1) == 'd')
+				&& !SyllableCounter.isVowel(text.charAt(end - 3))) {
+			return 1;
+		}
+		if (length > 4 && text.charAt(end - 3) == 'i' && text.charAt(end - 2) == 'n'
+				&& text.charAt(end - 1) == 'g' && !SyllableCounter.isVowel(text.charAt(end - 4))) {
+			return 1;
+		}
+		return 0;
+	}
+
+	/** Return true if no token spans the position between text[i-1] and
+	 * text[i], so the text can be split into separate spans there.
+	 */
+	static boolean isTokenBoundary(CharSequence text, int i)
+	{
+		if (i == 0 || i == text.length()) {
+			return true;
+		}
+		char before = text.charAt(i - 1);
+		char after = text.charAt(i);
+		return !(isLetter(before) && isLetter(after))
+				&& !(isSentenceEnd(before) && isSentenceEnd(after));
+	}
+
+	/** Return true if c can be part of a word */
+	static boolean isLetter(char c)
+	{
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+
+	/** Return true if c is sentence-ending punctuation */
+	static boolean isSentenceEnd(char c)
+	{
+		return c == '.' || c == '!' || c == '?';
+	}
+
+	/** Return the number of words counted */
+	public int getNumWords()
+	{
+		return numWords;
+	}
+
+	/** Return the number of syllables counted */
+	public int getNumSyllables()
+	{
+		return numSyllables;
+	}
+
+	/** Return the number of letters in the words counted */
+	public int getNumLetters()
+	{
+		return numLetters;
+	}
+
+	/** Return the number of characters scanned, including spaces and
+	 * punctuation */
+	public int getNumCharacters()
+	{
+		return numCharacters;
+	}
+
+	/** Return the number of words with three or more syllables */
+	public int getNumPolysyllables()
+	{
+		return numPolysyllables;
+	}
+
+	/** Return the number of words with three or more syllables not
+	 * counting an -es, -ed or -ing suffix */
+	public int getNumComplexWords()
+	{
+		return numComplexWords;
+	}
+
+	/** Return the number of sentence-ending punctuation runs counted */
+	int getNumSentenceEnds()
+	{
+		return numSentenceEnds;
+	}
+
+	/** Return true if the last token counted was a word */
+	boolean endsWithWord()
+	{
+		return endsWithWord;
+	}
+
+	/** Return the number of sentences counted, including a final sentence
+	 * that is not terminated by punctuation */
+	public int getNumSentences()
+	{
+		return endsWithWord ? numSentenceEnds + 1 : numSentenceEnds;
+	}
+}
@@ -0,0 +1,417 @@
+package spelling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A trie that implements the Dictionary and the AutoComplete ADT using a
+ * few primitive arrays instead of one object per node.
+ *
+ * Node n is described by entry n of each array: the character on the link
+ * into it, its first child, its next sibling, its parent and whether it
+ * ends a word.  The children of a node form a list kept sorted by
+ * character, so a lookup can stop as soon as it passes the character it
+ * wants.  Node 0 is the root, and since the root is never a child, 0 also
+ * marks a missing child or sibling.
+ *
+ * Unlike AutoCompleteDictionaryTrie, nodes do not store their text: a
+ * completion is spelled out by following parent links only when it is
+ * returned.  This makes a node about 15 bytes, instead of a TrieNode, a
+ * HashMap, its table and entries, and a String.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ *
+ */
+public class AutoCompleteCompactTrie implements Dictionary, AutoComplete {
+
+	static final int ROOT = 0;
+	static final int NONE = 0;
+
+	char[] labels;  // The character on the link into each node
+	int[] firstChild;  // The child with the smallest character
+	int[] nextSibling;  // The child of the same parent with the next character
+	int[] parent;  // The node each node is a child of
+	boolean[] endsWord;  // Whether each node ends a word
+
+	private int numNodes;
+	private int size;
+
+	public AutoCompleteCompactTrie()
+	{
+		this(1024);
+	}
+
+	/** Create an empty trie with room for the given number of nodes
+	 * before its arrays need to grow
+	 *
+	 * @param capacity The expected number of nodes
+	 */
+	public AutoCompleteCompactTrie(int capacity)
+	{
+		resize(Math.max(capacity, 16));
+		numNodes = 1;
+	}
+
+	/** Create a trie from arrays laid out as described above, such as
+	 * those read from a DictionaryImage.  The arrays are used, not copied.
+	 */
+	AutoCompleteCompactTrie(char[] labels, int[] firstChild, int[] nextSibling, int[] parent,
+			boolean[] endsWord, int numNodes, int size)
+	{
+		this.labels = labels;
+		this.firstChild = firstChild;
+		this.nextSibling = nextSibling;
+		this.parent = parent;
+		this.endsWord = endsWord;
+		this.numNodes = numNodes;
+		this.size = size;
+	}
+
+	/** Insert a word into the trie, converted to lower case.
+	 *
+	 * @return true if the word was added or false if it was already in
+	 * the dictionary or is empty.
+	 */
+	@Override
+	public boolean addWord(String word)
+	{
+		if (word.length() == 0) {
+			return false;
+		}
+
+		return markWord(insert(word));
+	}
+
+	/** Add all of these words to the dictionary.  If the trie is empty,
+	 * it is built from the sorted words: each word only creates the nodes
+	 * after the prefix it shares with the word before, and since every new
+	 * child comes after its siblings, it is linked in without searching
+	 * them.
+	 * @param words The words to add
+	 * @return The number of words that were added */
+	@Override
+	public int addWords(String[] words)
+	{
+		if (numNodes > 1) {
+			return Dictionary.super.addWords(words);
+		}
+		String[] sorted = DictionaryLoader.sortWords(words);
+
+		// path[d] is the node for the first d characters of the last word
+		int[] path = new int[32];
+		String last = "";
+		int added = 0;
+		for (String word : sorted) {
+			if (word.length() == 0) {
+				continue;
+			}
+			if (word.length() >= path.length) {
+				path = Arrays.copyOf(path, 2 * word.length());
+			}
+
+			int common = 0;
+			int max = Math.min(word.length(), last.length());
+			while (common < max && word.charAt(common) == last.charAt(common)) {
+				common++;
+			}
+
+			// only the node where the words part has children already, and
+			// its last child is on the path of the last word
+			for (int d = common; d < word.length(); d++) {
+				int lastChild = d == common && d < last.length() ? path[d + 1] : NONE;
+				path[d + 1] = newNode(path[d], lastChild, word.charAt(d));
+			}
+
+			endsWord[path[word.length()]] = true;
+			added++;
+			last = word;
+		}
+		size += added;
+		return added;
+	}
+
+	/** Create the nodes for word, converted to lower case, and return the
+	 * last one.  The word must not be empty. */
+	int insert(String word)
+	{
+		int node = ROOT;
+		for (int i = 0; i < word.length(); i++) {
+			node = insertChild(node, Character.toLowerCase(word.charAt(i)));
+		}
+		return node;
+	}
+
+	/** Make node the end of a word, and return true if it wasn't already */
+	boolean markWord(int node)
+	{
+		if (endsWord[node]) {
+			return false;
+		}
+		endsWord[node] = true;
+		size++;
+		return true;
+	}
+
+	/** Return the number of words in the dictionary */
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+	/** Return the number of nodes in the trie, including the root */
+	public int getNumNodes()
+	{
+		return numNodes;
+	}
+
+	/** Is this a word according to this dictionary?  Case is ignored. */
+	@Override
+	public boolean isWord(String s)
+	{
+		return isWord(s, 0, s.length());
+	}
+
+	/** Is text[start, end) a word according to this dictionary?  Case is
+	 * ignored, and nothing is allocated. */
+	@Override
+	public boolean isWord(CharSequence text, int start, int end)
+	{
+		if (start == end) {
+			return false;
+		}
+		int node = findStem(text, start, end);
+		return node != NONE && endsWord[node];
+	}
+
+	/**
+	 * Return a list, in order of increasing (non-decreasing) word length,
+	 * containing the numCompletions shortest legal completions of the prefix
+	 * string.  Words of the same length are returned in alphabetical order.
+	 * If the prefix itself is a word, it is included.  If the prefix is not
+	 * in the trie, the list is empty.
+	 *
+	 * @param prefix The text to use at the word stem
+	 * @param numCompletions The maximum number of predictions desired.
+	 * @return A list containing the up to numCompletions best predictions
+	 */
+	@Override
+	public List<String> predictCompletions(String prefix, int numCompletions)
+	{
+		List<String> completions = new ArrayList<String>();
+		if (numCompletions <= 0) {
+			return completions;
+		}
+
+		// the empty prefix leads to the root, which is also NONE
+		int stem = findStem(prefix);
+		if (stem == NONE && prefix.length() > 0) {
+			return completions;
+		}
+
+		// breadth first search, with the queue held in a growing int array
+		int[] queue = new int[16];
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = stem;
+		while (head < tail && completions.size() < numCompletions) {
+			int node = queue[head++];
+			if (endsWord[node]) {
+				completions.add(spell(node));
+			}
+
+			for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+				if (tail == queue.length) {
+					// drop the part of the queue already visited before growing it
+					int pending = tail - head;
+					if (head < queue.length / 2) {
+						queue = Arrays.copyOf(queue, queue.length * 2);
+					}
+					System.arraycopy(queue, head, queue, 0, pending);
+					head = 0;
+					tail = pending;
+				}
+				queue[tail++] = child;
+			}
+		}
+
+		return completions;
+	}
+
+	/** Return the node reached by following s from the root, ignoring
+	 * case, or NONE if there is no such node.  The empty string leads to
+	 * the root. */
+	int findStem(String s)
+	{
+		return findStem(s, 0, s.length());
+	}
+
+	/** Return the node for text[start, end), ignoring case, as findStem does */
+	int findStem(CharSequence text, int start, int end)
+	{
+		int node = ROOT;
+		for (int i = start; i < end; i++) {
+			node = findChild(node, Character.toLowerCase(text.charAt(i)));
+			if (node == NONE) {
+				return NONE;
+			}
+		}
+		return node;
+	}
+
+	/** Return the child of node linked by c, or NONE */
+	private int findChild(int node, char c)
+	{
+		int child = firstChild[node];
+		while (child != NONE && labels[child] < c) {
+			child = nextSibling[child];
+		}
+		return child != NONE && labels[child] == c ? child : NONE;
+	}
+
+	/** Return the child of node linked by c, creating it in its sorted
+	 * place among its siblings if it does not exist */
+	private int insertChild(int node, char c)
+	{
+		int previous = NONE;
+		int child = firstChild[node];
+		while (child != NONE && labels[child] < c) {
+			previous = child;
+			child = nextSibling[child];
+		}
+		if (child != NONE && labels[child] == c) {
+			return child;
+		}
+		return newNode(node, previous, c);
+	}
+
+	/** Create a child of node linked by c, placed after the sibling
+	 * previous, or first if previous is NONE */
+	private int newNode(int node, int previous, char c)
+	{
+		if (numNodes == labels.length) {
+			// arrays read from an image are exactly full, and may hold only the root
+			resize(Math.max(16, labels.length + (labels.length >> 1)));
+		}
+		int added = numNodes++;
+		labels[added] = c;
+		parent[added] = node;
+		if (previous == NONE) {
+			nextSibling[added] = firstChild[node];
+			firstChild[node] = added;
+		}
+		else {
+			nextSibling[added] = nextSibling[previous];
+			nextSibling[previous] = added;
+		}
+		return added;
+	}
+
+	/** Make room for capacity nodes.  A subclass that keeps more arrays
+	 * indexed by node resizes them here too. */
+	protected void resize(int capacity)
+	{
+		if (labels == null) {
+			labels = new char[capacity];
+			firstChild = new int[capacity];
+			nextSibling = new int[capacity];
+			parent = new int[capacity];
+			endsWord = new boolean[capacity];
+			return;
+		}
+		labels = Arrays.copyOf(labels, capacity);
+		firstChild = Arrays.copyOf(firstChild, capacity);
+		nextSibling = Arrays.copyOf(nextSibling, capacity);
+		parent = Arrays.copyOf(parent, capacity);
+		endsWord = Arrays.copyOf(endsWord, capacity);
+	}
+
+	/** Return the word spelled by the path from the root to node */
+	String spell(int node)
+	{
+		int length = 0;
+		for (int n = node; n != ROOT; n = parent[n]) {
+			length++;
+		}
+		char[] word = new char[length];
+		for (int n = node; n != ROOT; n = parent[n]) {
+			word[--length] = labels[n];
+		}
+		return new String(word);
+	}
+
+	/** Compare the heap used by this trie and by AutoCompleteDictionaryTrie
+	 * for the same dictionary, and the time to look up every word in it.
+	 *
+	 * Usage: java spelling.AutoCompleteCompactTrie [dictionary file]
+	 */
+	public static void main(String[] args)
+	{
+		String dictFile = args.length > 0 ? args[0] : "data/dict.txt";
+		List<String> words = DictionaryLoader.readWords(dictFile);
+
+		long before = usedMemory();
+		AutoCompleteDictionaryTrie trie = new AutoCompleteDictionaryTrie();
+		for (String word : words) {
+			trie.addWord(word);
+		}
+		long trieBytes = usedMemory() - before;
+
+		before = usedMemory();
+		AutoCompleteCompactTrie compact = new AutoCompleteCompactTrie();
+		for (String word : words) {
+			compact.addWord(word);
+		}
+		long compactBytes = usedMemory() - before;
+
+		System.out.println(compact.size() + " words, " + compact.getNumNodes() + " nodes");
+		System.out.println(String.format("AutoCompleteDictionaryTrie: %,d bytes, %.1f bytes/word",
+				trieBytes, (double) trieBytes / trie.size()));
+		System.out.println(String.format("AutoCompleteCompactTrie:    %,d bytes, %.1f bytes/word",
+				compactBytes, (double) compactBytes / compact.size()));
+
+		// time looking up every word, and every word with its last letter
+		// changed, after a few rounds to let the JIT compile the lookups
+		List<String> misses = new ArrayList<String>();
+		for (String word : words) {
+			char last = word.charAt(word.length() - 1);
+			misses.add(word.substring(0, word.length() - 1) + (last == 'q' ? 'x' : 'q'));
+		}
+		for (int round = 0; round < 5; round++) {
+			long trieTime = timeLookups(trie, words) + timeLookups(trie, misses);
+			long compactTime = timeLookups(compact, words) + timeLookups(compact, misses);
+			System.out.println(String.format("lookups: AutoCompleteDictionaryTrie %.1f ns/word, "
+					+ "AutoCompleteCompactTrie %.1f ns/word",
+					(double) trieTime / (2 * words.size()), (double) compactTime / (2 * words.size())));
+		}
+
+		// keep both tries reachable until both have been measured
+		System.out.println(trie.size() == compact.size() ? "" : "sizes differ");
+	}
+
+	private static long timeLookups(Dictionary d, List<String> words)
+	{
+		int found = 0;
+		long start = System.nanoTime();
+		for (String word : words) {
+			if (d.isWord(word)) {
+				found++;
+			}
+		}
+		long time = System.nanoTime() - start;
+		if (found < 0) {
+			System.out.println(found);
+		}
+		return time;
+	}
+
+	private static long usedMemory()
+	{
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
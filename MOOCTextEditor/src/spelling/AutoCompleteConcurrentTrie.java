@@ -0,0 +1,390 @@
+package spelling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A trie that implements the Dictionary and the AutoComplete ADT and can
+ * be used from many threads at once.
+ *
+ * The nodes of the trie never change once they are created.  Adding a
+ * word copies only the nodes on its path, then publishes the new root
+ * together with the new size as one snapshot through a volatile field.
+ * Readers take no locks: isWord and predictCompletions read the current
+ * snapshot once and walk it, seeing either all of an addition or none of
+ * it, however many words are added meanwhile.  Since readers never write
+ * shared state, lookups on different threads do not slow each other down.
+ *
+ * Writers take a lock, so concurrent calls to addWord are applied one at
+ * a time.  Each costs O(length x children per node) to copy its path,
+ * which suits a dictionary that is loaded once and then has the odd
+ * word added while it is being read.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ *
+ */
+public class AutoCompleteConcurrentTrie implements Dictionary, AutoComplete {
+
+	private static final char[] NO_LABELS = new char[0];
+	private static final Node[] NO_CHILDREN = new Node[0];
+	private static final Node LEAF = new Node(NO_LABELS, NO_CHILDREN, false);
+
+	private volatile Snapshot snapshot = new Snapshot(LEAF, 0);
+
+	// Held by writers only
+	private final Object writeLock = new Object();
+
+	/** Insert a word into the trie, converted to lower case.  Readers on
+	 * other threads see the word as soon as this returns.
+	 *
+	 * @return true if the word was added or false if it was already in
+	 * the dictionary or is empty.
+	 */
+	@Override
+	public boolean addWord(String word)
+	{
+		if (word.length() == 0) {
+			return false;
+		}
+		String lowerCase = word.toLowerCase();
+		synchronized (writeLock) {
+			Snapshot current = snapshot;
+			Node root = insert(current.root, lowerCase, 0);
+			if (root == current.root) {
+				return false;
+			}
+			snapshot = new Snapshot(root, current.size + 1);
+			return true;
+		}
+	}
+
+	/** Add all of these words to the dictionary and publish them as one
+	 * snapshot.  If the dictionary is empty, the trie is built bottom-up
+	 * from the sorted words without copying any node.
+	 * @param words The words to add
+	 * @return The number of words that were added */
+	@Override
+	public int addWords(String[] words)
+	{
+		synchronized (writeLock) {
+			Snapshot current = snapshot;
+			if (current.size == 0) {
+				String[] sorted = DictionaryLoader.sortWords(words);
+				int start = sorted.length > 0 && sorted[0].length() == 0 ? 1 : 0;
+				Node root = build(sorted, start, sorted.length, 0);
+				snapshot = new Snapshot(root, sorted.length - start);
+				return sorted.length - start;
+			}
+
+			Node root = current.root;
+			int added = 0;
+			for (String word : words) {
+				if (word.length() > 0) {
+					Node next = insert(root, word.toLowerCase(), 0);
+					if (next != root) {
+						root = next;
+						added++;
+					}
+				}
+			}
+			snapshot = new Snapshot(root, current.size + added);
+			return added;
+		}
+	}
+
+	/** Return the number of words in the dictionary */
+	@Override
+	public int size()
+	{
+		return snapshot.size;
+	}
+
+	/** Is this a word according to this dictionary?  Case is ignored. */
+	@Override
+	public boolean isWord(String s)
+	{
+		return isWord(s, 0, s.length());
+	}
+
+	/** Is text[start, end) a word according to this dictionary?  Case is
+	 * ignored, and nothing is allocated. */
+	@Override
+	public boolean isWord(CharSequence text, int start, int end)
+	{
+		if (start == end) {
+			return false;
+		}
+		Node node = findStem(snapshot.root, text, start, end);
+		return node != null && node.isWord;
+	}
+
+	/**
+	 * Return a list, in order of increasing (non-decreasing) word length,
+	 * containing the numCompletions shortest legal completions of the prefix
+	 * string.  Words of the same length are returned in alphabetical order.
+	 * If the prefix itself is a word, it is included.  If the prefix is not
+	 * in the trie, the list is empty.  The completions all come from the
+	 * same snapshot of the dictionary.
+	 *
+	 * @param prefix The text to use at the word stem
+	 * @param numCompletions The maximum number of predictions desired.
+	 * @return A list containing the up to numCompletions best predictions
+	 */
+	@Override
+	public List<String> predictCompletions(String prefix, int numCompletions)
+	{
+		List<String> completions = new ArrayList<String>();
+		Node stem = findStem(snapshot.root, prefix, 0, prefix.length());
+		if (numCompletions <= 0 || stem == null) {
+			return completions;
+		}
+		String lowerPrefix = prefix.toLowerCase();
+
+		// breadth first search.  Entry i of the queue is a node, the entry
+		// it was reached from and the character on the way, so that a word
+		// can be spelled out only when it is found.
+		Node[] nodes = new Node[16];
+		int[] from = new int[16];
+		char[] labels = new char[16];
+		int head = 0;
+		int tail = 0;
+		nodes[tail] = stem;
+		from[tail++] = -1;
+		while (head < tail && completions.size() < numCompletions) {
+			int entry = head++;
+			Node node = nodes[entry];
+			if (node.isWord) {
+				completions.add(spell(lowerPrefix, entry, from, labels));
+			}
+
+			if (tail + node.children.length > nodes.length) {
+				int capacity = Math.max(2 * nodes.length, tail + node.children.length);
+				nodes = Arrays.copyOf(nodes, capacity);
+				from = Arrays.copyOf(from, capacity);
+				labels = Arrays.copyOf(labels, capacity);
+			}
+			for (int i = 0; i < node.children.length; i++) {
+				nodes[tail] = node.children[i];
+				from[tail] = entry;
+				labels[tail++] = node.labels[i];
+			}
+		}
+
+		return completions;
+	}
+
+	/** Return the word for queue entry, the prefix followed by the
+	 * characters on the way to it */
+	private static String spell(String prefix, int entry, int[] from, char[] labels)
+	{
+		int length = prefix.length();
+		for (int e = entry; from[e] >= 0; e = from[e]) {
+			length++;
+		}
+		char[] word = new char[length];
+		prefix.getChars(0, prefix.length(), word, 0);
+		for (int e = entry; from[e] >= 0; e = from[e]) {
+			word[--length] = labels[e];
+		}
+		return new String(word);
+	}
+
+	/** Return the node reached by following text[start, end) from root,
+	 * ignoring case, or null if there is none */
+	private static Node findStem(Node root, CharSequence text, int start, int end)
+	{
+		Node node = root;
+		for (int i = start; i < end && node != null; i++) {
+			node = node.child(Character.toLowerCase(text.charAt(i)));
+		}
+		return node;
+	}
+
+	/** Return node with word[i..] added below it: node itself if the word
+	 * is already there, otherwise a copy with a new path */
+	private static Node insert(Node node, String word, int i)
+	{
+		if (i == word.length()) {
+			return node.isWord ? node : new Node(node.labels, node.children, true);
+		}
+
+		char c = word.charAt(i);
+		int index = Arrays.binarySearch(node.labels, c);
+		Node child = index >= 0 ? node.children[index] : LEAF;
+		Node replaced = insert(child, word, i + 1);
+		if (replaced == child) {
+			return node;
+		}
+
+		if (index >= 0) {
+			Node[] children = node.children.clone();
+			children[index] = replaced;
+			return new Node(node.labels, children, node.isWord);
+		}
+
+		// a new child, in its sorted place
+		int at = -index - 1;
+		int count = node.labels.length;
+		char[] labels = new char[count + 1];
+		Node[] children = new Node[count + 1];
+		System.arraycopy(node.labels, 0, labels, 0, at);
+		System.arraycopy(node.children, 0, children, 0, at);
+		labels[at] = c;
+		children[at] = replaced;
+		System.arraycopy(node.labels, at, labels, at + 1, count - at);
+		System.arraycopy(node.children, at, children, at + 1, count - at);
+		return new Node(labels, children, node.isWord);
+	}
+
+	/** Build the subtree for words[start, end), which are sorted, distinct
+	 * and all share their first depth characters */
+	private static Node build(String[] words, int start, int end, int depth)
+	{
+		boolean isWord = start < end && words[start].length() == depth;
+		if (isWord) {
+			start++;
+		}
+		if (start == end) {
+			return isWord ? new Node(NO_LABELS, NO_CHILDREN, true) : LEAF;
+		}
+
+		// count the distinct characters at depth, then build each group
+		int count = 0;
+		for (int i = start; i < end; i++) {
+			if (i == start || words[i].charAt(depth) != words[i - 1].charAt(depth)) {
+				count++;
+			}
+		}
+		char[] labels = new char[count];
+		Node[] children = new Node[count];
+		int group = start;
+		for (int n = 0; n < count; n++) {
+			char c = words[group].charAt(depth);
+			int groupEnd = group + 1;
+			while (groupEnd < end && words[groupEnd].charAt(depth) == c) {
+				groupEnd++;
+			}
+			labels[n] = c;
+			children[n] = build(words, group, groupEnd, depth + 1);
+			group = groupEnd;
+		}
+		return new Node(labels, children, isWord);
+	}
+
+	/* A node of the trie.  Its fields never change, so it can be shared
+	 * between snapshots and read without locks. */
+	private static final class Node {
+		final char[] labels;  // The characters on the links to the children, sorted
+		final Node[] children;
+		final boolean isWord;
+
+		Node(char[] labels, Node[] children, boolean isWord)
+		{
+			this.labels = labels;
+			this.children = children;
+			this.isWord = isWord;
+		}
+
+		Node child(char c)
+		{
+			// most nodes have only a few children
+			if (labels.length <= 8) {
+				for (int i = 0; i < labels.length; i++) {
+					if (labels[i] == c) {
+						return children[i];
+					}
+				}
+				return null;
+			}
+			int index = Arrays.binarySearch(labels, c);
+			return index >= 0 ? children[index] : null;
+		}
+	}
+
+	/* The root and size of the trie at one moment, published together */
+	private static final class Snapshot {
+		final Node root;
+		final int size;
+
+		Snapshot(Node root, int size)
+		{
+			this.root = root;
+			this.size = size;
+		}
+	}
+
+	/** Look up every word of a text on 1, 2, 4 ... threads, with another
+	 * thread adding words at the same time, and print the lookups per
+	 * second.
+	 *
+	 * Usage: java spelling.AutoCompleteConcurrentTrie [dictionary file] [text file] [max threads]
+	 */
+	public static void main(String[] args) throws Exception
+	{
+		String dictFile = args.length > 0 ? args[0] : "data/dict.txt";
+		String textFile = args.length > 1 ? args[1] : "data/warAndPeace.txt";
+		int maxThreads = args.length > 2 ? Integer.parseInt(args[2])
+				: Math.max(4, Runtime.getRuntime().availableProcessors());
+
+		AutoCompleteConcurrentTrie trie = new AutoCompleteConcurrentTrie();
+		trie.addWords(DictionaryLoader.readWords(dictFile).toArray(new String[0]));
+		List<String> tokens = new ArrayList<String>();
+		for (String line : DictionaryLoader.readWords(textFile)) {
+			for (String token : line.split("[^a-zA-Z']+")) {
+				if (token.length() > 0) {
+					tokens.add(token);
+				}
+			}
+		}
+		String[] lookups = tokens.toArray(new String[tokens.size()]);
+		System.out.println(trie.size() + " words, " + lookups.length + " lookups per thread, "
+				+ Runtime.getRuntime().availableProcessors() + " processors");
+
+		int added = 0;
+		for (int threads = 1; threads <= maxThreads; threads *= 2) {
+			ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+			for (int round = 0; round < 3; round++) {
+				List<Future<Integer>> readers = new ArrayList<Future<Integer>>();
+				long start = System.nanoTime();
+				for (int t = 0; t < threads; t++) {
+					readers.add(pool.submit(() -> {
+						int found = 0;
+						for (String word : lookups) {
+							if (trie.isWord(word)) {
+								found++;
+							}
+						}
+						return found;
+					}));
+				}
+
+				// add words while the readers run
+				int first = added;
+				Future<?> writer = pool.submit(() -> {
+					for (int i = 0; i < 1000; i++) {
+						trie.addWord("zzconcurrent" + (first + i));
+					}
+				});
+				for (Future<Integer> reader : readers) {
+					reader.get();
+				}
+				long time = System.nanoTime() - start;
+				writer.get();
+				added += 1000;
+
+				if (round == 2) {
+					System.out.println(String.format("%2d reader threads: %,.0f lookups/s (%,.0f per thread)",
+							threads, 1e9 * threads * lookups.length / time, 1e9 * lookups.length / time));
+				}
+			}
+			pool.shutdown();
+			pool.awaitTermination(1, TimeUnit.MINUTES);
+		}
+		System.out.println(trie.size() + " words after adding " + added);
+	}
+}
@@ -86,12 +86,24 @@ public class AutoCompleteDictionaryTrie implements  Dictionary, AutoComplete {
 	 * described in the videos for this week. */
 	@Override
 	public boolean isWord(String s) 
+	{
+		return this.isWord(s, 0, s.length());
+	}
+
+	/** Returns whether text[start, end) is a word in the trie, walking
+	 * down from the root one lower cased character at a time rather than
+	 * lower casing a copy of the word first. */
+	@Override
+	public boolean isWord(CharSequence text, int start, int end)
 	{
 		// edge case: empty string is not a word
-		if (s.length() == 0) return false;
+		if (start == end) return false;
 
 		// iterate through the trie starting from root
-		TrieNode curr = this.findStemFromString(s);
+		TrieNode curr = this.root;
+		for (int i = start; i < end && curr != null; i++) {
+			curr = curr.getChild(Character.toLowerCase(text.charAt(i)));
+		}
 
 		// can't find the stem, not a word
 		if (curr == null) return false;
@@ -5,13 +5,21 @@ package spelling;
 
 import static org.junit.Assert.*;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
-import org.junit.Before;
 import org.junit.Test;
 
 /**
+ * Tests every AutoComplete trie.  Each test runs once for each engine,
+ * with the dictionaries set up afresh.
+ *
  * @author UC San Diego MOOC team
  *
  */
@@ -19,19 +27,25 @@ public class AutoCompleteDictionaryTrieTester {
 
 	private String dictFile = "data/words.small.txt"; 
 
-	private AutoCompleteDictionaryTrie emptyDict;
-	private AutoCompleteDictionaryTrie smallDict;
-	private AutoCompleteDictionaryTrie largeDict;
+	// Each engine, by name.  Add new AutoComplete tries here.
+	private static final Map<String, Supplier<Dictionary>> ENGINES = new LinkedHashMap<>();
+	static {
+		ENGINES.put("AutoCompleteDictionaryTrie", AutoCompleteDictionaryTrie::new);
+		ENGINES.put("AutoCompleteCompactTrie", AutoCompleteCompactTrie::new);
+		ENGINES.put("AutoCompleteConcurrentTrie", AutoCompleteConcurrentTrie::new);
+	}
+
+	private Dictionary emptyDict;
+	private Dictionary smallDict;
+	private Dictionary largeDict;
 	
-	/**
-	 * @throws java.lang.Exception
+	/** Set up the dictionaries with new tries made by the engine
 	 */
-	@Before
-	public void setUp() throws Exception 
+	private void setUp(Supplier<Dictionary> engine)
 	{
-		emptyDict = new AutoCompleteDictionaryTrie();
-		smallDict = new AutoCompleteDictionaryTrie();
-		largeDict = new AutoCompleteDictionaryTrie();
+		emptyDict = engine.get();
+		smallDict = engine.get();
+		largeDict = engine.get();
 
 		smallDict.addWord("Hello");
 		smallDict.addWord("HElLo");
@@ -47,118 +61,237 @@ public class AutoCompleteDictionaryTrieTester {
 
 	}
 
+	/** Run the test once for each engine, naming the engine in any failure */
+	private void forEachEngine(Runnable test)
+	{
+		for (Map.Entry<String, Supplier<Dictionary>> engine : ENGINES.entrySet()) {
+			setUp(engine.getValue());
+			try {
+				test.run();
+			}
+			catch (AssertionError e) {
+				throw new AssertionError(engine.getKey() + ": " + e.getMessage(), e);
+			}
+		}
+	}
+
 	
 	/** Test if the size method is working correctly.
 	 */
 	@Test
 	public void testSize()
 	{
-		assertEquals("Testing size for empty dict", 0, emptyDict.size());
-		assertEquals("Testing size for small dict", 8, smallDict.size());
-		assertEquals("Testing size for large dict", 4438, largeDict.size());
+		forEachEngine(() -> {
+			assertEquals("Testing size for empty dict", 0, emptyDict.size());
+			assertEquals("Testing size for small dict", 8, smallDict.size());
+			assertEquals("Testing size for large dict", 4438, largeDict.size());
+		});
 	}
 	
 	/** Test the isWord method */
 	@Test
 	public void testIsWord()
 	{
-		assertEquals("Testing isWord on small: he", false, smallDict.isWord("hel"));
-		assertEquals("Testing isWord on empty: Hello", false, emptyDict.isWord("Hello"));
-		assertEquals("Testing isWord on small: Hello", true, smallDict.isWord("Hello"));
-		assertEquals("Testing isWord on large: Hello", true, largeDict.isWord("Hello"));
+		forEachEngine(() -> {
+			assertEquals("Testing isWord on small: he", false, smallDict.isWord("hel"));
+			assertEquals("Testing isWord on empty: Hello", false, emptyDict.isWord("Hello"));
+			assertEquals("Testing isWord on small: Hello", true, smallDict.isWord("Hello"));
+			assertEquals("Testing isWord on large: Hello", true, largeDict.isWord("Hello"));
 		
-		assertEquals("Testing isWord on small: hello", true, smallDict.isWord("hello"));
-		assertEquals("Testing isWord on large: hello", true, largeDict.isWord("hello"));
+			assertEquals("Testing isWord on small: hello", true, smallDict.isWord("hello"));
+			assertEquals("Testing isWord on large: hello", true, largeDict.isWord("hello"));
 
-		assertEquals("Testing isWord on small: hellow", false, smallDict.isWord("hellow"));
-		assertEquals("Testing isWord on large: hellow", false, largeDict.isWord("hellow"));
+			assertEquals("Testing isWord on small: hellow", false, smallDict.isWord("hellow"));
+			assertEquals("Testing isWord on large: hellow", false, largeDict.isWord("hellow"));
 		
-		assertEquals("Testing isWord on empty: empty string", false, emptyDict.isWord(""));
-		assertEquals("Testing isWord on small: empty string", false, smallDict.isWord(""));
-		assertEquals("Testing isWord on large: empty string", false, largeDict.isWord(""));
+			assertEquals("Testing isWord on empty: empty string", false, emptyDict.isWord(""));
+			assertEquals("Testing isWord on small: empty string", false, smallDict.isWord(""));
+			assertEquals("Testing isWord on large: empty string", false, largeDict.isWord(""));
 		
-		assertEquals("Testing isWord on small: no", false, smallDict.isWord("no"));
-		assertEquals("Testing isWord on large: no", true, largeDict.isWord("no"));
+			assertEquals("Testing isWord on small: no", false, smallDict.isWord("no"));
+			assertEquals("Testing isWord on large: no", true, largeDict.isWord("no"));
 		
-		assertEquals("Testing isWord on small: subsequent", true, smallDict.isWord("subsequent"));
-		assertEquals("Testing isWord on large: subsequent", true, largeDict.isWord("subsequent"));
+			assertEquals("Testing isWord on small: subsequent", true, smallDict.isWord("subsequent"));
+			assertEquals("Testing isWord on large: subsequent", true, largeDict.isWord("subsequent"));
 		
 		
+		});
 	}
 	
 	/** Test the addWord method */
 	@Test
 	public void testAddWord()
 	{
-		assertEquals("Asserting hellow is not in empty dict", false, emptyDict.isWord("hellow"));
-		assertEquals("Asserting hellow is not in small dict", false, smallDict.isWord("hellow"));
-		assertEquals("Asserting hellow is not in large dict", false, largeDict.isWord("hellow"));
+		forEachEngine(() -> {
+			assertEquals("Asserting hellow is not in empty dict", false, emptyDict.isWord("hellow"));
+			assertEquals("Asserting hellow is not in small dict", false, smallDict.isWord("hellow"));
+			assertEquals("Asserting hellow is not in large dict", false, largeDict.isWord("hellow"));
 		
-		emptyDict.addWord("hellow");
-		smallDict.addWord("hellow");
-		largeDict.addWord("hellow");
+			emptyDict.addWord("hellow");
+			smallDict.addWord("hellow");
+			largeDict.addWord("hellow");
 
-		assertEquals("Asserting hellow is in empty dict", true, emptyDict.isWord("hellow"));
-		assertEquals("Asserting hellow is in small dict", true, smallDict.isWord("hellow"));
-		assertEquals("Asserting hellow is in large dict", true, largeDict.isWord("hellow"));
+			assertEquals("Asserting hellow is in empty dict", true, emptyDict.isWord("hellow"));
+			assertEquals("Asserting hellow is in small dict", true, smallDict.isWord("hellow"));
+			assertEquals("Asserting hellow is in large dict", true, largeDict.isWord("hellow"));
 
-		assertEquals("Asserting xyzabc is not in empty dict", false, emptyDict.isWord("xyzabc"));
-		assertEquals("Asserting xyzabc is not in small dict", false, smallDict.isWord("xyzabc"));
-		assertEquals("Asserting xyzabc is in large dict", false, largeDict.isWord("xyzabc"));
+			assertEquals("Asserting xyzabc is not in empty dict", false, emptyDict.isWord("xyzabc"));
+			assertEquals("Asserting xyzabc is not in small dict", false, smallDict.isWord("xyzabc"));
+			assertEquals("Asserting xyzabc is in large dict", false, largeDict.isWord("xyzabc"));
 
 		
-		emptyDict.addWord("XYZAbC");
-		smallDict.addWord("XYZAbC");
-		largeDict.addWord("XYZAbC");
+			emptyDict.addWord("XYZAbC");
+			smallDict.addWord("XYZAbC");
+			largeDict.addWord("XYZAbC");
 
-		assertEquals("Asserting xyzabc is in empty dict", true, emptyDict.isWord("xyzabc"));
-		assertEquals("Asserting xyzabc is in small dict", true, smallDict.isWord("xyzabc"));
-		assertEquals("Asserting xyzabc is large dict", true, largeDict.isWord("xyzabc"));
+			assertEquals("Asserting xyzabc is in empty dict", true, emptyDict.isWord("xyzabc"));
+			assertEquals("Asserting xyzabc is in small dict", true, smallDict.isWord("xyzabc"));
+			assertEquals("Asserting xyzabc is large dict", true, largeDict.isWord("xyzabc"));
 		
 		
-		assertEquals("Testing isWord on empty: empty string", false, emptyDict.isWord(""));
-		assertEquals("Testing isWord on small: empty string", false, smallDict.isWord(""));
-		assertEquals("Testing isWord on large: empty string", false, largeDict.isWord(""));
+			assertEquals("Testing isWord on empty: empty string", false, emptyDict.isWord(""));
+			assertEquals("Testing isWord on small: empty string", false, smallDict.isWord(""));
+			assertEquals("Testing isWord on large: empty string", false, largeDict.isWord(""));
 		
-		assertEquals("Testing isWord on small: no", false, smallDict.isWord("no"));
-		assertEquals("Testing isWord on large: no", true, largeDict.isWord("no"));
+			assertEquals("Testing isWord on small: no", false, smallDict.isWord("no"));
+			assertEquals("Testing isWord on large: no", true, largeDict.isWord("no"));
 		
-		assertEquals("Testing isWord on small: subsequent", true, smallDict.isWord("subsequent"));
-		assertEquals("Testing isWord on large: subsequent", true, largeDict.isWord("subsequent"));
+			assertEquals("Testing isWord on small: subsequent", true, smallDict.isWord("subsequent"));
+			assertEquals("Testing isWord on large: subsequent", true, largeDict.isWord("subsequent"));
 		
 		
+		});
 	}
 	
 	@Test
 	public void testPredictCompletions()
 	{
-		//smallDict.printTree();
-		List<String> completions;
-		completions = smallDict.predictCompletions("", 0);
-		assertEquals(0, completions.size());
-		
-		completions = smallDict.predictCompletions("",  4);
-		assertEquals(4, completions.size());
-		assertTrue(completions.contains("a"));
-		assertTrue(completions.contains("he"));
-		boolean twoOfThree = completions.contains("hey") && completions.contains("hot") ||
-				             completions.contains("hey") && completions.contains("hem") ||
-				             completions.contains("hot") && completions.contains("hem");
-		assertTrue(twoOfThree);
-		
-		completions = smallDict.predictCompletions("he", 2);
-		boolean allIn = completions.contains("he") && 
-				(completions.contains("hem") || completions.contains("hey"));
-		assertEquals(2, completions.size());
-		assertTrue(allIn);
-		
-		completions = smallDict.predictCompletions("hel", 10);
-		assertEquals(2, completions.size());
-		allIn = completions.contains("hello") && completions.contains("help");
-		assertTrue(allIn);
+		forEachEngine(() -> {
+			//smallDict.printTree();
+			AutoComplete smallDict = (AutoComplete) this.smallDict;
+			List<String> completions;
+			completions = smallDict.predictCompletions("", 0);
+			assertEquals(0, completions.size());
+		
+			completions = smallDict.predictCompletions("",  4);
+			assertEquals(4, completions.size());
+			assertTrue(completions.contains("a"));
+			assertTrue(completions.contains("he"));
+			boolean twoOfThree = completions.contains("hey") && completions.contains("hot") ||
+					             completions.contains("hey") && completions.contains("hem") ||
+					             completions.contains("hot") && completions.contains("hem");
+			assertTrue(twoOfThree);
+		
+			completions = smallDict.predictCompletions("he", 2);
+			boolean allIn = completions.contains("he") && 
+					(completions.contains("hem") || completions.contains("hey"));
+			assertEquals(2, completions.size());
+			assertTrue(allIn);
+		
+			completions = smallDict.predictCompletions("hel", 10);
+			assertEquals(2, completions.size());
+			allIn = completions.contains("hello") && completions.contains("help");
+			assertTrue(allIn);
 	
-		completions = smallDict.predictCompletions("x", 5);
-		assertEquals(0, completions.size());
+			completions = smallDict.predictCompletions("x", 5);
+			assertEquals(0, completions.size());
+		});
+	}
+
+	/** Test that a search over the whole large dictionary returns words in
+	 * order of length, and that ties in length are broken alphabetically
+	 * by every trie but AutoCompleteDictionaryTrie, which breaks them in
+	 * the order of its HashMap */
+	@Test
+	public void testCompletionOrder()
+	{
+		forEachEngine(() -> {
+			List<String> completions;
+			if (!(smallDict instanceof AutoCompleteDictionaryTrie)) {
+				completions = ((AutoComplete) smallDict).predictCompletions("", 4);
+				assertEquals("[a, he, hem, hey]", completions.toString());
+			}
+
+			completions = ((AutoComplete) largeDict).predictCompletions("", 1000);
+			assertEquals(1000, completions.size());
+			for (int i = 1; i < completions.size(); i++) {
+				assertTrue(completions.get(i - 1).length() <= completions.get(i).length());
+			}
+		});
+	}
+
+	/** Test that words can be added to a compact trie read from the image
+	 * of an empty trie, whose arrays hold only the root */
+	@Test
+	public void testAddWordAfterImage() throws Exception
+	{
+		Path image = Files.createTempFile("empty", ".trie");
+		try {
+			DictionaryImage.write(new AutoCompleteCompactTrie(), image);
+			AutoCompleteCompactTrie loaded = DictionaryImage.readTrie(image);
+			assertTrue(loaded.addWord("hello"));
+			assertTrue(loaded.addWord("help"));
+			assertTrue(loaded.isWord("hello"));
+			assertEquals(2, loaded.size());
+			assertEquals("[help, hello]", loaded.predictCompletions("he", 4).toString());
+		}
+		finally {
+			Files.delete(image);
+		}
+	}
+
+	/** Test that words added to a concurrent trie from several threads at
+	 * once are all kept, while readers on other threads keep finding the
+	 * original words and never see the dictionary shrink */
+	@Test
+	public void testConcurrentAddWord() throws InterruptedException
+	{
+		AutoCompleteConcurrentTrie dict = new AutoCompleteConcurrentTrie();
+		DictionaryLoader.loadDictionary(dict, dictFile);
+
+		final int numWords = 5000;
+		final AtomicBoolean failed = new AtomicBoolean(false);
+		final AtomicBoolean writing = new AtomicBoolean(true);
+		Thread[] readers = new Thread[4];
+		for (int t = 0; t < readers.length; t++) {
+			readers[t] = new Thread(() -> {
+				int lastSize = 0;
+				while (writing.get()) {
+					int size = dict.size();
+					if (size < lastSize || !dict.isWord("hello")) {
+						failed.set(true);
+					}
+					lastSize = size;
+				}
+			});
+			readers[t].start();
+		}
+
+		Thread[] writers = new Thread[2];
+		for (int t = 0; t < writers.length; t++) {
+			final String prefix = "zz" + t + "added";
+			writers[t] = new Thread(() -> {
+				for (int i = 0; i < numWords; i++) {
+					dict.addWord(prefix + i);
+				}
+			});
+			writers[t].start();
+		}
+		for (Thread thread : writers) {
+			thread.join();
+		}
+		writing.set(false);
+		for (Thread thread : readers) {
+			thread.join();
+		}
+
+		assertFalse("Readers saw the dictionary change badly", failed.get());
+		assertEquals(4438 + 2 * numWords, dict.size());
+		for (int i = 0; i < numWords; i++) {
+			assertTrue(dict.isWord("zz0added" + i));
+			assertTrue(dict.isWord("zz1added" + i));
+		}
+		assertEquals("[zz1added0, zz1added1]", dict.predictCompletions("zz1", 2).toString());
 	}
 	
 	
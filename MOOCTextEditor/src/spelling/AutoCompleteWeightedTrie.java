@@ -0,0 +1,315 @@
+package spelling;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compact trie whose words have weights, usually how often each word is
+ * used, and whose completions are the words with the highest weights
+ * rather than the shortest ones.
+ *
+ * Each node also stores the highest weight of any word below it.  The
+ * best completions are found with a best-first search that always expands
+ * the most promising node next: since no word below a node weighs more
+ * than that node's best weight, the first k words taken off the queue are
+ * the k heaviest, and only the nodes on or next to their paths are
+ * visited, however many words share the prefix.
+ *
+ * Words added without a weight weigh 0.  Words of equal weight come out in
+ * the order their nodes were created, which is alphabetical when the
+ * dictionary was loaded in sorted order.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ *
+ */
+public class AutoCompleteWeightedTrie extends AutoCompleteCompactTrie {
+
+	private int[] weights;  // The weight of the word ending at each node
+	private int[] bestWeights;  // The highest weight of any word below each node
+
+	private int numVisited;  // The nodes visited by the last search
+
+	public AutoCompleteWeightedTrie()
+	{
+		super();
+	}
+
+	/** Create an empty trie with room for the given number of nodes
+	 * before its arrays need to grow
+	 *
+	 * @param capacity The expected number of nodes
+	 */
+	public AutoCompleteWeightedTrie(int capacity)
+	{
+		super(capacity);
+	}
+
+	/** Add a word with the given weight, or add the weight to the word's
+	 * weight if it is already in the dictionary.  Calling this once per
+	 * occurrence of a word with a weight of 1 counts its frequency.
+	 *
+	 * @param word The word to add, converted to lower case
+	 * @param weight The weight to add, which must not be negative
+	 * @return true if the word was added to the dictionary (it wasn't
+	 * already there).
+	 */
+	public boolean addWord(String word, int weight)
+	{
+		if (weight < 0) {
+			throw new IllegalArgumentException("Weight must not be negative: " + weight);
+		}
+		if (word.length() == 0) {
+			return false;
+		}
+
+		// one descent both adds the word and finds the node for its weight
+		int node = insert(word);
+		boolean added = markWord(node);
+		if (weight == 0) {
+			return added;
+		}
+
+		int total = weights[node] + weight;
+		if (total < 0) {
+			total = Integer.MAX_VALUE;
+		}
+		weights[node] = total;
+
+		// weights only grow, so the best weights above the node can only
+		// grow too, and stop changing at the first one already as heavy
+		for (int n = node; bestWeights[n] < total; n = parent[n]) {
+			bestWeights[n] = total;
+			if (n == ROOT) {
+				break;
+			}
+		}
+		return added;
+	}
+
+	/** Return the weight of the word, or -1 if it is not in the dictionary */
+	public int getWeight(String word)
+	{
+		int node = findStem(word);
+		if (word.length() == 0 || node == NONE || !endsWord[node]) {
+			return -1;
+		}
+		return weights[node];
+	}
+
+	/** Return the number of nodes visited by the last call to
+	 * predictCompletions */
+	public int getNumVisited()
+	{
+		return numVisited;
+	}
+
+	/**
+	 * Return a list of up to numCompletions words that start with the
+	 * prefix, heaviest first.  If the prefix itself is a word, it may be
+	 * included.  If the prefix is not in the trie, the list is empty.
+	 *
+	 * @param prefix The text to use at the word stem
+	 * @param numCompletions The maximum number of predictions desired.
+	 * @return A list containing the up to numCompletions best predictions
+	 */
+	@Override
+	public List<String> predictCompletions(String prefix, int numCompletions)
+	{
+		List<String> completions = new ArrayList<String>();
+		numVisited = 0;
+		if (numCompletions <= 0) {
+			return completions;
+		}
+
+		// the empty prefix leads to the root, which is also NONE
+		int stem = findStem(prefix);
+		if (stem == NONE && prefix.length() > 0) {
+			return completions;
+		}
+
+		// The queue holds two kinds of entries: a node still to expand,
+		// ranked by the best weight below it, and a word found while
+		// expanding, ranked by its own weight.
+		Queue queue = new Queue();
+		queue.add(bestWeights[stem], stem, false);
+		while (!queue.isEmpty() && completions.size() < numCompletions) {
+			long entry = queue.remove();
+			int node = Queue.node(entry);
+			if (Queue.isWord(entry)) {
+				completions.add(spell(node));
+				continue;
+			}
+
+			numVisited++;
+			if (endsWord[node]) {
+				queue.add(weights[node], node, true);
+			}
+			for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+				queue.add(bestWeights[child], child, false);
+			}
+		}
+
+		return completions;
+	}
+
+	@Override
+	protected void resize(int capacity)
+	{
+		super.resize(capacity);
+		// called by the superclass constructor, before this class's fields
+		// have been initialized
+		if (weights == null) {
+			weights = new int[capacity];
+			bestWeights = new int[capacity];
+			return;
+		}
+		weights = Arrays.copyOf(weights, capacity);
+		bestWeights = Arrays.copyOf(bestWeights, capacity);
+	}
+
+	/** Add the weights in a file with a word and a count on each line,
+	 * separated by whitespace, adding any words that are not already in
+	 * the dictionary.  Lines that do not match are skipped.
+	 *
+	 * @param filename The file of words and counts, in UTF-8
+	 * @return The number of lines read
+	 */
+	public int loadWeights(String filename) throws IOException
+	{
+		int numLines = 0;
+		try (BufferedReader reader = Files.newBufferedReader(Paths.get(filename), StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] fields = line.trim().split("\\s+");
+				if (fields.length == 2 && fields[1].matches("\\d+")) {
+					addWord(fields[0], Integer.parseInt(fields[1]));
+					numLines++;
+				}
+			}
+		}
+		return numLines;
+	}
+
+	/** Count how often each dictionary word is used in a text file and add
+	 * the counts as weights.  Words that are not in the dictionary are not
+	 * added.
+	 *
+	 * @param filename The text to count the words of, in UTF-8
+	 * @return The number of words counted
+	 */
+	public int countWeights(String filename) throws IOException
+	{
+		int numCounted = 0;
+		try (BufferedReader reader = Files.newBufferedReader(Paths.get(filename), StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				for (String word : line.split("[^a-zA-Z']+")) {
+					if (isWord(word)) {
+						addWord(word, 1);
+						numCounted++;
+					}
+				}
+			}
+		}
+		return numCounted;
+	}
+
+	/* A max-heap of queue entries packed into longs, so that the search
+	 * does not allocate an object per entry.  The weight is in the high 32
+	 * bits.  The low bits hold the node, inverted so that equal weights
+	 * come out in node order, and a flag that puts a word ahead of its own
+	 * subtree when they weigh the same. */
+	private static class Queue {
+		private long[] heap = new long[32];
+		private int size = 0;
+
+		public void add(int weight, int node, boolean isWord)
+		{
+			long entry = ((long) weight << 32)
+					| ((long) (Integer.MAX_VALUE - node) << 1)
+					| (isWord ? 1 : 0);
+			if (size == heap.length) {
+				heap = Arrays.copyOf(heap, size * 2);
+			}
+			int i = size++;
+			while (i > 0 && heap[(i - 1) / 2] < entry) {
+				heap[i] = heap[(i - 1) / 2];
+				i = (i - 1) / 2;
+			}
+			heap[i] = entry;
+		}
+
+		public long remove()
+		{
+			long top = heap[0];
+			long last = heap[--size];
+			int i = 0;
+			while (2 * i + 1 < size) {
+				int child = 2 * i + 1;
+				if (child + 1 < size && heap[child + 1] > heap[child]) {
+					child++;
+				}
+				if (heap[child] <= last) {
+					break;
+				}
+				heap[i] = heap[child];
+				i = child;
+			}
+			heap[i] = last;
+			return top;
+		}
+
+		public boolean isEmpty()
+		{
+			return size == 0;
+		}
+
+		public static int node(long entry)
+		{
+			return Integer.MAX_VALUE - (int) ((entry & 0xFFFFFFFFL) >>> 1);
+		}
+
+		public static boolean isWord(long entry)
+		{
+			return (entry & 1) != 0;
+		}
+	}
+
+	/** Weight the dictionary by how often each word is used in a text,
+	 * then print the top completions of some prefixes and how many nodes
+	 * the search visited.
+	 *
+	 * Usage: java spelling.AutoCompleteWeightedTrie [dictionary file] [text file]
+	 */
+	public static void main(String[] args)
+	{
+		String dictFile = args.length > 0 ? args[0] : "data/dict.txt";
+		String textFile = args.length > 1 ? args[1] : "data/warAndPeace.txt";
+
+		AutoCompleteWeightedTrie trie = new AutoCompleteWeightedTrie();
+		DictionaryLoader.loadDictionary(trie, dictFile);
+		int numCounted;
+		try {
+			numCounted = trie.countWeights(textFile);
+		}
+		catch (IOException e) {
+			System.err.println("Problem reading text file: " + textFile);
+			e.printStackTrace();
+			return;
+		}
+		System.out.println(trie.size() + " words, " + trie.getNumNodes() + " nodes, "
+				+ numCounted + " uses counted in " + textFile);
+
+		for (String prefix : new String[] {"", "t", "th", "pr", "pri", "natas", "zz"}) {
+			List<String> completions = trie.predictCompletions(prefix, 5);
+			System.out.println("\"" + prefix + "\": " + completions
+					+ ", " + trie.getNumVisited() + " nodes visited");
+		}
+	}
+}
@@ -0,0 +1,100 @@
+/**
+ *
+ */
+package spelling;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author UC San Diego MOOC team
+ *
+ */
+public class AutoCompleteWeightedTrieTester {
+
+	private AutoCompleteWeightedTrie emptyDict;
+	private AutoCompleteWeightedTrie smallDict;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception
+	{
+		emptyDict = new AutoCompleteWeightedTrie();
+		smallDict = new AutoCompleteWeightedTrie();
+
+		smallDict.addWord("Hello", 5);
+		smallDict.addWord("help", 20);
+		smallDict.addWord("he", 100);
+		smallDict.addWord("hem");
+		smallDict.addWord("hot", 7);
+		smallDict.addWord("hey", 2);
+		smallDict.addWord("a", 50);
+		smallDict.addWord("subsequent", 1);
+	}
+
+	/** Test that weights add up and that words without one weigh 0 */
+	@Test
+	public void testWeights()
+	{
+		assertEquals("Testing size for small dict", 8, smallDict.size());
+		assertEquals(5, smallDict.getWeight("hello"));
+		assertEquals(0, smallDict.getWeight("hem"));
+		assertEquals(-1, smallDict.getWeight("hel"));
+		assertEquals(-1, emptyDict.getWeight(""));
+
+		assertEquals(false, smallDict.addWord("HELLO", 10));
+		assertEquals(15, smallDict.getWeight("hello"));
+		assertEquals(8, smallDict.size());
+	}
+
+	/** Test that completions come out heaviest first */
+	@Test
+	public void testPredictCompletions()
+	{
+		List<String> completions;
+		completions = emptyDict.predictCompletions("", 4);
+		assertEquals(0, completions.size());
+
+		completions = smallDict.predictCompletions("", 0);
+		assertEquals(0, completions.size());
+
+		completions = smallDict.predictCompletions("", 3);
+		assertEquals("[he, a, help]", completions.toString());
+
+		completions = smallDict.predictCompletions("hel", 10);
+		assertEquals("[help, hello]", completions.toString());
+
+		// a word that gets heavier moves ahead
+		smallDict.addWord("hello", 30);
+		completions = smallDict.predictCompletions("h", 3);
+		assertEquals("[he, hello, help]", completions.toString());
+
+		completions = smallDict.predictCompletions("he", 10);
+		assertEquals("[he, hello, help, hey, hem]", completions.toString());
+
+		completions = smallDict.predictCompletions("x", 5);
+		assertEquals(0, completions.size());
+	}
+
+	/** Test that the search only visits the nodes it needs */
+	@Test
+	public void testNodesVisited()
+	{
+		AutoCompleteWeightedTrie dict = new AutoCompleteWeightedTrie();
+		for (char c = 'a'; c <= 'z'; c++) {
+			for (char d = 'a'; d <= 'z'; d++) {
+				dict.addWord("" + c + d + "ing");
+			}
+		}
+		dict.addWord("zzing", 10);
+
+		assertEquals("[zzing]", dict.predictCompletions("", 1).toString());
+		assertEquals(6, dict.getNumVisited());
+	}
+}
@@ -0,0 +1,63 @@
+package spelling;
+
+/**
+ * Compares the lower case words a dictionary keeps with ranges of a larger
+ * text, ignoring the case of the text, without copying the range.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ *
+ */
+class CaseFolding {
+
+	/** Is text[start, end) the lower case word, ignoring the case of the text? */
+	public static boolean matches(CharSequence word, CharSequence text, int start, int end)
+	{
+		if (word.length() != end - start) {
+			return false;
+		}
+		for (int i = 0; i < word.length(); i++) {
+			if (word.charAt(i) != Character.toLowerCase(text.charAt(start + i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** Compare the lower case word with text[start, end), ignoring the case
+	 * of the text, as String.compareTo would compare the word with a lower
+	 * case copy of the range */
+	public static int compare(String word, CharSequence text, int start, int end)
+	{
+		int length = Math.min(word.length(), end - start);
+		for (int i = 0; i < length; i++) {
+			char c = word.charAt(i);
+			char d = Character.toLowerCase(text.charAt(start + i));
+			if (c != d) {
+				return c - d;
+			}
+		}
+		return word.length() - (end - start);
+	}
+
+	/** Return the index of text[start, end), ignoring the case of the text,
+	 * in the sorted lower case words, or -1 if it is not there */
+	public static int indexOf(String[] words, CharSequence text, int start, int end)
+	{
+		int low = 0;
+		int high = words.length - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int comparison = compare(words[middle], text, start, end);
+			if (comparison < 0) {
+				low = middle + 1;
+			}
+			else if (comparison > 0) {
+				high = middle - 1;
+			}
+			else {
+				return middle;
+			}
+		}
+		return -1;
+	}
+}
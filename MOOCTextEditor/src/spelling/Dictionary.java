@@ -17,7 +17,37 @@ public interface Dictionary {
 	/** Is this a word according to this dictionary? */
 	public abstract boolean isWord(String s);
 	
+	/** Is text[start, end) a word according to this dictionary?  Case is
+	 * ignored.  This checks a word where it is in a larger text, such as
+	 * the text being spell checked.  Dictionaries override it to look the
+	 * word up in place, without copying it or allocating a lower case copy.
+	 * @param text The text holding the word
+	 * @param start The index of the first character of the word
+	 * @param end The index just past the last character of the word */
+	public default boolean isWord(CharSequence text, int start, int end)
+	{
+		return isWord(text.subSequence(start, end).toString());
+	}
+	
 	/** Return the number of words in the dictionary */
 	public abstract int size();
 	
+	/** Add all of these words to the dictionary.  The words may be in any
+	 * order and case.  Dictionaries that can be built faster from sorted
+	 * words override this, and take words that are already sorted,
+	 * lower case and distinct (as DictionaryLoader.readSortedWords returns
+	 * them) without sorting them again.
+	 * @param words The words to add
+	 * @return The number of words that were added (weren't already there). */
+	public default int addWords(String[] words)
+	{
+		int added = 0;
+		for (String word : words) {
+			if (addWord(word)) {
+				added++;
+			}
+		}
+		return added;
+	}
+	
 }
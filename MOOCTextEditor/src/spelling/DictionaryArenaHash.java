@@ -0,0 +1,325 @@
+package spelling;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A Dictionary held in a hash table with open addressing, with the words
+ * stored back to back in one byte array.
+ *
+ * Each word is stored lower case in the arena as its length in bytes
+ * followed by its UTF-8 bytes, so an ASCII word of n letters costs n + 1
+ * bytes.  The table is one int array of pairs: the hash of a word and
+ * where it starts in the arena.  isWord hashes the word, then scans the
+ * table from the word's slot (linear probing), comparing the arena only
+ * where the cached hash matches.  A lookup therefore touches one run of
+ * the table and at most one word in the arena, and no String, entry
+ * object or array is kept per word.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ *
+ */
+public class DictionaryArenaHash implements Dictionary {
+
+	// The table is grown when more than this fraction of its slots are used
+	private static final double MAX_LOAD = 0.5;
+
+	private int[] table;  // Pairs of (hash, arena offset + 1); an offset of 0 marks an empty slot
+	private int mask;  // The number of slots minus 1, a power of two minus 1
+	private byte[] arena;  // The words, each as its length and its bytes
+	private int arenaSize;  // The bytes of the arena in use
+	private int size;  // The number of words
+
+	/** Create an empty dictionary */
+	public DictionaryArenaHash()
+	{
+		this(16);
+	}
+
+	/** Create an empty dictionary with room for this many words before
+	 * it has to grow */
+	public DictionaryArenaHash(int expectedWords)
+	{
+		int slots = slotsFor(expectedWords);
+		table = new int[2 * slots];
+		mask = slots - 1;
+		arena = new byte[Math.max(64, 10 * expectedWords)];
+	}
+
+	/** Add this word to the dictionary, converted to lower case.
+	 * @param word The word to add
+	 * @return true if the word was added to the dictionary
+	 * (it wasn't already there or empty). */
+	@Override
+	public boolean addWord(String word)
+	{
+		int length = word.length();
+		if (length == 0) {
+			return false;
+		}
+		int hash = HashIndex.hashLowerCase(word, 0, length);
+		int slot = find(hash, word, 0, length);
+		if (table[2 * slot + 1] != 0) {
+			return false;
+		}
+
+		table[2 * slot] = hash;
+		table[2 * slot + 1] = append(word) + 1;
+		size++;
+		if (size > MAX_LOAD * (mask + 1)) {
+			resize(2 * (mask + 1));
+		}
+		return true;
+	}
+
+	/** Add all of these words to the dictionary, sizing the table and
+	 * arena for them first so that they do not grow while they are added.
+	 * @param words The words to add
+	 * @return The number of words that were added */
+	@Override
+	public int addWords(String[] words)
+	{
+		int slots = slotsFor((long) size + words.length);
+		if (slots > mask + 1) {
+			resize(slots);
+		}
+		long bytes = arenaSize + 5;
+		for (String word : words) {
+			bytes += word.length() + 1;
+		}
+		if (bytes > arena.length && bytes <= Integer.MAX_VALUE) {
+			arena = Arrays.copyOf(arena, (int) bytes);
+		}
+		return Dictionary.super.addWords(words);
+	}
+
+	/** Return the number of words in the dictionary */
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+	/** Is this a word according to this dictionary?  Case is ignored. */
+	@Override
+	public boolean isWord(String s)
+	{
+		return isWord(s, 0, s.length());
+	}
+
+	/** Is text[start, end) a word according to this dictionary?  Case is
+	 * ignored, and nothing is allocated. */
+	@Override
+	public boolean isWord(CharSequence text, int start, int end)
+	{
+		if (start == end) {
+			return false;
+		}
+		return table[2 * find(HashIndex.hashLowerCase(text, start, end), text, start, end) + 1] != 0;
+	}
+
+	/** Return the number of bytes in the table and the arena */
+	public long getNumBytes()
+	{
+		return 4L * table.length + arena.length;
+	}
+
+	/** Return the number of bytes of the arena holding words */
+	public int getArenaSize()
+	{
+		return arenaSize;
+	}
+
+	/** Return the slot holding text[start, end), or the empty slot where
+	 * it would go */
+	private int find(int hash, CharSequence text, int start, int end)
+	{
+		int slot = hash & mask;
+		while (true) {
+			int offset = table[2 * slot + 1];
+			if (offset == 0 || table[2 * slot] == hash && matches(offset - 1, text, start, end)) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/** Is the word at offset in the arena text[start, end) in lower case? */
+	private boolean matches(int offset, CharSequence text, int start, int end)
+	{
+		int length = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = arena[offset++];
+			length |= (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+
+		int pos = offset;
+		int limit = offset + length;
+		for (int i = start; i < end; i++) {
+			char c = Character.toLowerCase(text.charAt(i));
+			if (c < 0x80) {
+				if (pos == limit || arena[pos++] != c) {
+					return false;
+				}
+			}
+			else if (c < 0x800) {
+				if (limit - pos < 2 || arena[pos++] != (byte) (0xC0 | c >> 6)
+						|| arena[pos++] != (byte) (0x80 | c & 0x3F)) {
+					return false;
+				}
+			}
+			else if (limit - pos < 3 || arena[pos++] != (byte) (0xE0 | c >> 12)
+					|| arena[pos++] != (byte) (0x80 | c >> 6 & 0x3F)
+					|| arena[pos++] != (byte) (0x80 | c & 0x3F)) {
+				return false;
+			}
+		}
+		return pos == limit;
+	}
+
+	/** Append the word in lower case to the arena and return its offset */
+	private int append(String word)
+	{
+		int length = 0;
+		for (int i = 0; i < word.length(); i++) {
+			char c = Character.toLowerCase(word.charAt(i));
+			length += c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+		}
+
+		// the bytes, after at most 5 bytes of length
+		long needed = arenaSize + 5L + length;
+		if (needed > arena.length) {
+			if (needed > Integer.MAX_VALUE) {
+				throw new IllegalStateException("Dictionary too large: " + needed + " bytes");
+			}
+			arena = Arrays.copyOf(arena, (int) Math.min(Integer.MAX_VALUE, Math.max(needed, 2L * arena.length)));
+		}
+
+		int offset = arenaSize;
+		int pos = offset;
+		for (int rest = length; ; rest >>>= 7) {
+			if (rest < 0x80) {
+				arena[pos++] = (byte) rest;
+				break;
+			}
+			arena[pos++] = (byte) (rest | 0x80);
+		}
+		for (int i = 0; i < word.length(); i++) {
+			char c = Character.toLowerCase(word.charAt(i));
+			if (c < 0x80) {
+				arena[pos++] = (byte) c;
+			}
+			else if (c < 0x800) {
+				arena[pos++] = (byte) (0xC0 | c >> 6);
+				arena[pos++] = (byte) (0x80 | c & 0x3F);
+			}
+			else {
+				arena[pos++] = (byte) (0xE0 | c >> 12);
+				arena[pos++] = (byte) (0x80 | c >> 6 & 0x3F);
+				arena[pos++] = (byte) (0x80 | c & 0x3F);
+			}
+		}
+		arenaSize = pos;
+		return offset;
+	}
+
+	/** Return the number of slots, a power of two, that holds this many
+	 * words without growing */
+	private static int slotsFor(long words)
+	{
+		long needed = Math.max(2, (long) Math.ceil(words / MAX_LOAD));
+		return Integer.highestOneBit((int) Math.min(needed, 1 << 30) - 1) << 1;
+	}
+
+	/** Move every word to a table with this many slots, using the cached
+	 * hashes rather than hashing the words again */
+	private void resize(int slots)
+	{
+		int[] old = table;
+		table = new int[2 * slots];
+		mask = slots - 1;
+		for (int i = 0; i < old.length; i += 2) {
+			if (old[i + 1] != 0) {
+				int slot = old[i] & mask;
+				while (table[2 * slot + 1] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				table[2 * slot] = old[i];
+				table[2 * slot + 1] = old[i + 1];
+			}
+		}
+	}
+
+
+	/** Compare the heap used by this dictionary and by DictionaryHashSet
+	 * for the same words, and the time to look up every word and every
+	 * word with its last letter changed.
+	 *
+	 * Usage: java spelling.DictionaryArenaHash [dictionary file]
+	 */
+	public static void main(String[] args)
+	{
+		String dictFile = args.length > 0 ? args[0] : "data/dict.txt";
+		List<String> words = DictionaryLoader.readWords(dictFile);
+		String[] lines = words.toArray(new String[words.size()]);
+
+		long before = usedMemory();
+		DictionaryHashSet hashSet = new DictionaryHashSet();
+		hashSet.addWords(DictionaryLoader.readWords(dictFile).toArray(new String[0]));
+		long hashSetBytes = usedMemory() - before;
+
+		before = usedMemory();
+		DictionaryArenaHash arena = new DictionaryArenaHash();
+		arena.addWords(lines);
+		long arenaBytes = usedMemory() - before;
+
+		System.out.println(String.format("%d words, %,d bytes of words in the arena, %d table slots",
+				arena.size(), arena.getArenaSize(), arena.table.length / 2));
+		System.out.println(String.format("DictionaryHashSet:   %,d bytes, %.1f bytes/word",
+				hashSetBytes, (double) hashSetBytes / hashSet.size()));
+		System.out.println(String.format("DictionaryArenaHash: %,d bytes, %.1f bytes/word",
+				arenaBytes, (double) arenaBytes / arena.size()));
+
+		String[] misses = new String[lines.length];
+		for (int i = 0; i < lines.length; i++) {
+			String word = lines[i];
+			char last = word.charAt(word.length() - 1);
+			misses[i] = word.substring(0, word.length() - 1) + (last == 'q' ? 'x' : 'q');
+		}
+		for (int round = 0; round < 5; round++) {
+			long hashSetTime = timeLookups(hashSet, lines) + timeLookups(hashSet, misses);
+			long arenaTime = timeLookups(arena, lines) + timeLookups(arena, misses);
+			System.out.println(String.format("lookups: DictionaryHashSet %.1f ns/word, "
+					+ "DictionaryArenaHash %.1f ns/word",
+					(double) hashSetTime / (2 * lines.length), (double) arenaTime / (2 * lines.length)));
+		}
+	}
+
+	private static long timeLookups(Dictionary d, String[] words)
+	{
+		int found = 0;
+		long start = System.nanoTime();
+		for (String word : words) {
+			if (d.isWord(word)) {
+				found++;
+			}
+		}
+		long time = System.nanoTime() - start;
+		if (found < 0) {
+			System.out.println(found);
+		}
+		return time;
+	}
+
+	private static long usedMemory()
+	{
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
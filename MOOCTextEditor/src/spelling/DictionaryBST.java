@@ -1,5 +1,6 @@
 package spelling;
 
+import java.util.Arrays;
 import java.util.TreeSet;
 
 /**
@@ -9,6 +10,9 @@ import java.util.TreeSet;
 public class DictionaryBST implements Dictionary 
 {
    private TreeSet<String> dict;
+    // The words given to addWords while the dictionary was empty, sorted,
+    // lower case and distinct, found by binary search
+    private String[] sorted = new String[0];
 	
     public DictionaryBST() {
         this.dict = new TreeSet<>();
@@ -29,15 +33,43 @@ public class DictionaryBST implements Dictionary
     }
 
 
+    /** Add all of these words to the dictionary.  If the dictionary is
+     * empty, the sorted words are kept as an array and searched by
+     * binary search, instead of inserting them into the tree one at a
+     * time.  Words added after that go into the tree.
+     * @param words The words to add
+     * @return The number of words that were added */
+    @Override
+    public int addWords(String[] words) {
+        if (this.size() > 0) {
+            return Dictionary.super.addWords(words);
+        }
+        String[] sortedWords = DictionaryLoader.sortWords(words);
+        this.sorted = sortedWords == words ? words.clone() : sortedWords;
+        return this.sorted.length;
+    }
+
     /** Return the number of words in the dictionary */
     public int size()
     {
-        return this.dict.size();
+        return this.sorted.length + this.dict.size();
     }
 
     /** Is this a word according to this dictionary? */
     public boolean isWord(String s) {
-        return this.dict.contains(s.toLowerCase());
+        String word = s.toLowerCase();
+        return Arrays.binarySearch(this.sorted, word) >= 0 || this.dict.contains(word);
+    }
+
+    /** Is text[start, end) a word according to this dictionary?  The
+     * sorted array is searched with the range in place; the range is
+     * only copied if words were added one at a time. */
+    @Override
+    public boolean isWord(CharSequence text, int start, int end) {
+        if (CaseFolding.indexOf(this.sorted, text, start, end) >= 0) {
+            return true;
+        }
+        return !this.dict.isEmpty() && this.dict.contains(text.subSequence(start, end).toString().toLowerCase());
     }
 
 }
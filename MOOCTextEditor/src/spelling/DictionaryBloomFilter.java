@@ -0,0 +1,305 @@
+package spelling;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A Dictionary that puts a Bloom filter in front of another Dictionary.
+ *
+ * Every word added is also recorded in the filter by setting a few bits
+ * chosen by hashing it.  A word whose bits are not all set was never added,
+ * so isWord can reject it after a few hashes without looking in the
+ * dictionary.  A word whose bits are all set is looked up as usual: it is
+ * either a word, or a false positive whose bits were set by other words.
+ *
+ * The filter only knows about words added through this wrapper, so it
+ * must wrap an empty dictionary.  Counters of hits, rejected words and
+ * false positives show how well the filter is sized for the words being
+ * checked.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ *
+ */
+public class DictionaryBloomFilter implements Dictionary {
+
+	private Dictionary dict;  // The dictionary that answers when the filter cannot
+
+	private long[] bits;  // The filter
+	private long numBits;  // The number of bits in the filter, a multiple of 64
+	private int numHashes;  // The bits set per word
+
+	private long numHits = 0;  // Words that passed the filter and are in the dictionary
+	private long numRejected = 0;  // Words rejected by the filter alone
+	private long numFalsePositives = 0;  // Words that passed the filter but are not words
+
+	/** Wrap an empty dictionary with a filter sized for the expected
+	 * number of words and false positive rate
+	 *
+	 * @param dict The dictionary to wrap, which must be empty
+	 * @param expectedWords The number of words that will be added
+	 * @param falsePositiveRate The fraction of non-words that should get
+	 *   past the filter once expectedWords words have been added
+	 */
+	public DictionaryBloomFilter(Dictionary dict, int expectedWords, double falsePositiveRate)
+	{
+		if (dict.size() != 0) {
+			throw new IllegalArgumentException("The dictionary must be empty, "
+					+ "since the filter only knows the words added through it");
+		}
+		if (expectedWords < 1 || !(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+			throw new IllegalArgumentException("Invalid filter size: " + expectedWords
+					+ " words, false positive rate " + falsePositiveRate);
+		}
+		this.dict = dict;
+
+		// the optimal number of bits is -n ln p / (ln 2)^2
+		double optimalBits = -expectedWords * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+		if (optimalBits >= (1L << 32)) {
+			throw new IllegalArgumentException("Filter too large: " + optimalBits + " bits");
+		}
+		this.bits = new long[(int) Math.max(1, (long) Math.ceil(optimalBits / 64))];
+		this.numBits = 64L * bits.length;
+
+		// the optimal number of hashes for the bits actually used
+		this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedWords * Math.log(2)));
+	}
+
+	/** Add this word to the dictionary and the filter.
+	 * @param word The word to add
+	 * @return true if the word was added to the dictionary
+	 * (it wasn't already there). */
+	@Override
+	public boolean addWord(String word)
+	{
+		setBits(word);
+		return dict.addWord(word);
+	}
+
+	/** Add all of these words to the dictionary and the filter.
+	 * @param words The words to add
+	 * @return The number of words that were added */
+	@Override
+	public int addWords(String[] words)
+	{
+		for (String word : words) {
+			setBits(word);
+		}
+		return dict.addWords(words);
+	}
+
+	/** Return the number of words in the dictionary */
+	@Override
+	public int size()
+	{
+		return dict.size();
+	}
+
+	/** Is this a word according to this dictionary?  Words the filter
+	 * rejects are not looked up in the dictionary. */
+	@Override
+	public boolean isWord(String s)
+	{
+		return isWord(s, 0, s.length());
+	}
+
+	/** Is text[start, end) a word according to this dictionary?  The
+	 * filter is checked in place, and only words that pass it are looked
+	 * up in the dictionary. */
+	@Override
+	public boolean isWord(CharSequence text, int start, int end)
+	{
+		if (!mightContain(text, start, end)) {
+			numRejected++;
+			return false;
+		}
+		if (dict.isWord(text, start, end)) {
+			numHits++;
+			return true;
+		}
+		numFalsePositives++;
+		return false;
+	}
+
+	/** Return false if the word was certainly never added, true if it
+	 * may have been */
+	public boolean mightContain(String word)
+	{
+		return mightContain(word, 0, word.length());
+	}
+
+	/** Return false if text[start, end) was certainly never added as a
+	 * word, true if it may have been */
+	public boolean mightContain(CharSequence text, int start, int end)
+	{
+		long hash = hash(text, start, end);
+		int h1 = (int) (hash >>> 32);
+		int h2 = (int) hash | 1;
+		for (int i = 0; i < numHashes; i++) {
+			long bit = pick(h1 + i * h2);
+			if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void setBits(String word)
+	{
+		long hash = hash(word, 0, word.length());
+		int h1 = (int) (hash >>> 32);
+		int h2 = (int) hash | 1;
+		for (int i = 0; i < numHashes; i++) {
+			long bit = pick(h1 + i * h2);
+			bits[(int) (bit >>> 6)] |= 1L << bit;
+		}
+	}
+
+	/** Map a 32-bit hash to a bit of the filter, by scaling it to the
+	 * number of bits rather than dividing */
+	private long pick(int hash)
+	{
+		return ((hash & 0xFFFFFFFFL) * numBits) >>> 32;
+	}
+
+	/** Hash the word ignoring case, without making a lower case copy.
+	 * The bits for each word are then picked by double hashing: bit i is
+	 * picked by h1 + i * h2, using the two 32-bit halves of this hash. */
+	private static long hash(CharSequence text, int start, int end)
+	{
+		long hash = 0xcbf29ce484222325L;
+		for (int i = start; i < end; i++) {
+			hash ^= Character.toLowerCase(text.charAt(i));
+			hash *= 0x100000001b3L;
+		}
+		// spread the bits, as in MurmurHash3's finalizer
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	/** Return the number of bits in the filter */
+	public long getNumBits()
+	{
+		return numBits;
+	}
+
+	/** Return the number of bits set for each word */
+	public int getNumHashes()
+	{
+		return numHashes;
+	}
+
+	/** Return the chance that a word never added gets past the filter,
+	 * estimated from the fraction of bits that are set */
+	public double getFalsePositiveRate()
+	{
+		long set = 0;
+		for (long word : bits) {
+			set += Long.bitCount(word);
+		}
+		return Math.pow((double) set / getNumBits(), numHashes);
+	}
+
+	/** Return the number of lookups of words in the dictionary */
+	public long getNumHits()
+	{
+		return numHits;
+	}
+
+	/** Return the number of lookups the filter answered on its own */
+	public long getNumRejected()
+	{
+		return numRejected;
+	}
+
+	/** Return the number of lookups of non-words that got past the filter */
+	public long getNumFalsePositives()
+	{
+		return numFalsePositives;
+	}
+
+	/** Set all the counters back to 0 */
+	public void resetCounters()
+	{
+		numHits = 0;
+		numRejected = 0;
+		numFalsePositives = 0;
+	}
+
+	@Override
+	public String toString()
+	{
+		long misses = numRejected + numFalsePositives;
+		return String.format("%,d bits (%.1f per word), %d hashes, estimated false positive rate %.4f%%: "
+				+ "%,d hits, %,d rejected, %,d false positives (%.4f%% of misses)",
+				getNumBits(), (double) getNumBits() / Math.max(1, size()), numHashes,
+				100 * getFalsePositiveRate(), numHits, numRejected, numFalsePositives,
+				misses == 0 ? 0.0 : 100.0 * numFalsePositives / misses);
+	}
+
+	/** Check every word of a text, and as many misspellings of them, with
+	 * a dictionary with and without a filter in front of it, and print the
+	 * counters and timings for a few false positive rates.
+	 *
+	 * Usage: java spelling.DictionaryBloomFilter [dictionary file] [text file]
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		String dictFile = args.length > 0 ? args[0] : "data/dict.txt";
+		String textFile = args.length > 1 ? args[1] : "data/warAndPeace.txt";
+
+		String[] words = DictionaryLoader.readSortedWords(Paths.get(dictFile), StandardCharsets.UTF_8);
+		List<String> checks = new ArrayList<String>();
+		Random random = new Random(42);
+		for (String line : DictionaryLoader.readWords(textFile)) {
+			for (String token : line.split("[^a-zA-Z']+")) {
+				if (token.length() > 0) {
+					checks.add(token);
+					// a typo: one letter changed
+					int i = random.nextInt(token.length());
+					checks.add(token.substring(0, i) + (char) ('a' + random.nextInt(26)) + token.substring(i + 1));
+				}
+			}
+		}
+
+		DictionaryBST plain = new DictionaryBST();
+		plain.addWords(words);
+		System.out.println(String.format("%d words, %d lookups; DictionaryBST alone: %.1f ns/lookup",
+				plain.size(), checks.size(), timeLookups(plain, checks)));
+
+		for (double rate : new double[] {0.05, 0.01, 0.001}) {
+			DictionaryBloomFilter filtered = new DictionaryBloomFilter(new DictionaryBST(), words.length, rate);
+			filtered.addWords(words);
+			double nanos = timeLookups(filtered, checks);
+			System.out.println(String.format("target %.1f%%: %.1f ns/lookup, %s",
+					100 * rate, nanos, filtered));
+		}
+	}
+
+	/** Return the fastest time per lookup of the checks, over a few rounds */
+	private static double timeLookups(Dictionary d, List<String> checks)
+	{
+		long best = Long.MAX_VALUE;
+		int found = 0;
+		for (int round = 0; round < 5; round++) {
+			if (d instanceof DictionaryBloomFilter) {
+				((DictionaryBloomFilter) d).resetCounters();
+			}
+			long start = System.nanoTime();
+			for (String word : checks) {
+				if (d.isWord(word)) {
+					found++;
+				}
+			}
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return found < 0 ? 0 : (double) best / checks.size();
+	}
+}
@@ -0,0 +1,454 @@
+package spelling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * A Dictionary stored as a minimal deterministic acyclic automaton (a
+ * DAWG): a trie in which equal subtrees are merged, so that words share
+ * their suffixes as well as their prefixes.  "nation", "station" and
+ * "creation" all end in the same "ation" states, and every word ending
+ * in "ing" leads to the same few states.
+ *
+ * The automaton is built in one pass over sorted words with the
+ * incremental algorithm of Daciuk et al.: once the next word no longer
+ * shares a state with the previous one, that state can never change, so
+ * it is replaced by an equal state that already exists, or registered as
+ * a new one.  The finished automaton is held in flat arrays: the arcs of
+ * state s are arcs firstArc[s] to firstArc[s + 1] - 1, sorted by
+ * character, so isWord takes one short scan per character.
+ *
+ * The automaton cannot change once built.  Words given to addWord
+ * afterwards are kept in a HashSet next to it.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ *
+ */
+public class DictionaryDAWG implements Dictionary {
+
+	int[] firstArc;  // The index of the first arc of each state, plus one past the last arc
+	char[] labels;  // The character on each arc
+	int[] targets;  // The state each arc leads to
+	boolean[] isFinal;  // Whether each state ends a word
+	int start;  // The state for the empty prefix
+	int numWords;  // The number of words in the automaton
+
+	private HashSet<String> added;  // Words added after the automaton was built
+
+	/** Create an empty dictionary */
+	public DictionaryDAWG()
+	{
+		this(new Builder());
+	}
+
+	private DictionaryDAWG(Builder builder)
+	{
+		int root = builder.finish();
+		int numStates = builder.numStates;
+		int numArcs = builder.numArcs;
+
+		this.firstArc = Arrays.copyOf(builder.firstArc, numStates + 1);
+		this.firstArc[numStates] = numArcs;
+		this.labels = Arrays.copyOf(builder.labels, numArcs);
+		this.targets = Arrays.copyOf(builder.targets, numArcs);
+		this.isFinal = Arrays.copyOf(builder.isFinal, numStates);
+		this.start = root;
+		this.numWords = builder.numWords;
+		this.added = new HashSet<String>();
+	}
+
+	/** Create a dictionary from the arrays of an automaton, such as those
+	 * read from a DictionaryImage.  The arrays are used, not copied. */
+	DictionaryDAWG(int[] firstArc, char[] labels, int[] targets, boolean[] isFinal,
+			int start, int numWords)
+	{
+		this.firstArc = firstArc;
+		this.labels = labels;
+		this.targets = targets;
+		this.isFinal = isFinal;
+		this.start = start;
+		this.numWords = numWords;
+		this.added = new HashSet<String>();
+	}
+
+	/** Build a dictionary from any collection of words.  The words are
+	 * converted to lower case, sorted and duplicates removed first.
+	 *
+	 * @param words The words to put in the dictionary
+	 * @return The dictionary
+	 */
+	public static DictionaryDAWG build(Collection<String> words)
+	{
+		DictionaryDAWG dawg = new DictionaryDAWG();
+		dawg.addWords(words.toArray(new String[words.size()]));
+		return dawg;
+	}
+
+	/** Add this word to the dictionary.  The automaton itself cannot
+	 * change, so the word is kept with the other words added since it
+	 * was built.
+	 * @param word The word to add
+	 * @return true if the word was added to the dictionary
+	 * (it wasn't already there). */
+	@Override
+	public boolean addWord(String word)
+	{
+		if (word.length() == 0 || isWord(word)) {
+			return false;
+		}
+		return added.add(word.toLowerCase());
+	}
+
+	/** Add all of these words to the dictionary.  If the dictionary is
+	 * empty, the automaton is built from them; otherwise they are added
+	 * one at a time as by addWord.
+	 * @param words The words to add
+	 * @return The number of words that were added */
+	@Override
+	public int addWords(String[] words)
+	{
+		if (numWords > 0 || !added.isEmpty()) {
+			return Dictionary.super.addWords(words);
+		}
+
+		Builder builder = new Builder();
+		for (String word : DictionaryLoader.sortWords(words)) {
+			if (word.length() > 0) {
+				builder.add(word);
+			}
+		}
+		DictionaryDAWG built = builder.build();
+		this.firstArc = built.firstArc;
+		this.labels = built.labels;
+		this.targets = built.targets;
+		this.isFinal = built.isFinal;
+		this.start = built.start;
+		this.numWords = built.numWords;
+		return numWords;
+	}
+
+	/** Return the number of words in the dictionary */
+	@Override
+	public int size()
+	{
+		return numWords + added.size();
+	}
+
+	/** Is this a word according to this dictionary?  Case is ignored. */
+	@Override
+	public boolean isWord(String s)
+	{
+		return isWord(s, 0, s.length());
+	}
+
+	/** Is text[start, end) a word according to this dictionary?  Case is
+	 * ignored.  No copy of the range is made unless it is not in the
+	 * automaton and words were added after the automaton was built. */
+	@Override
+	public boolean isWord(CharSequence text, int start, int end)
+	{
+		int state = this.start;
+		for (int i = start; i < end && state >= 0; i++) {
+			state = next(state, Character.toLowerCase(text.charAt(i)));
+		}
+		if (state >= 0 && isFinal[state]) {
+			return true;
+		}
+		return !added.isEmpty() && added.contains(text.subSequence(start, end).toString().toLowerCase());
+	}
+
+	/** Return the state reached from state by the arc labelled c, or -1 */
+	private int next(int state, char c)
+	{
+		int end = firstArc[state + 1];
+		for (int arc = firstArc[state]; arc < end; arc++) {
+			if (labels[arc] >= c) {
+				return labels[arc] == c ? targets[arc] : -1;
+			}
+		}
+		return -1;
+	}
+
+	/** Return the number of states in the automaton */
+	public int getNumStates()
+	{
+		return isFinal.length;
+	}
+
+	/** Return the number of arcs in the automaton */
+	public int getNumArcs()
+	{
+		return labels.length;
+	}
+
+	/** Return the number of bytes in the arrays that hold the automaton,
+	 * not counting words added after it was built */
+	public long getNumBytes()
+	{
+		return 4L * firstArc.length + 2L * labels.length + 4L * targets.length + isFinal.length;
+	}
+
+	/**
+	 * Builds a DictionaryDAWG from words given in sorted order.  Only the
+	 * path of the last word added is still open to change; every other
+	 * state is already minimal and stored in the flat arrays.
+	 */
+	public static class Builder {
+
+		// The states on the path of the last word, one per character.
+		// Open state d has the arcs already closed below it, plus an arc on
+		// character d of the last word to open state d + 1.
+		private List<OpenState> path = new ArrayList<OpenState>();
+		private String last = "";
+
+		// Closed states, held in the same layout as the finished automaton
+		private int[] firstArc = new int[1024];
+		private boolean[] isFinal = new boolean[1024];
+		private char[] labels = new char[1024];
+		private int[] targets = new int[1024];
+		private int numStates = 0;
+		private int numArcs = 0;
+		private int numWords = 0;
+
+		// Open-addressing table of closed states, by their arcs and whether
+		// they are final, holding state + 1 so that 0 marks an empty slot
+		private int[] register = new int[1024];
+
+		private boolean built = false;
+
+		public Builder()
+		{
+			path.add(new OpenState());
+		}
+
+		/** Add the next word.  Words are converted to lower case, and must
+		 * come in strictly increasing order once converted.
+		 *
+		 * @param word The word to add
+		 * @throws IllegalArgumentException if the word is empty or not
+		 * after the previous word
+		 */
+		public void add(String word)
+		{
+			if (built) {
+				throw new IllegalStateException("The dictionary has already been built");
+			}
+			word = word.toLowerCase();
+			if (word.length() == 0 || (numWords > 0 && word.compareTo(last) <= 0)) {
+				throw new IllegalArgumentException("Words must be added in increasing order: \""
+						+ word + "\" after \"" + last + "\"");
+			}
+
+			int common = 0;
+			int max = Math.min(word.length(), last.length());
+			while (common < max && word.charAt(common) == last.charAt(common)) {
+				common++;
+			}
+
+			// the states of the last word below the shared prefix can no
+			// longer change
+			closePath(common);
+
+			for (int d = common + 1; d <= word.length(); d++) {
+				if (d == path.size()) {
+					path.add(new OpenState());
+				}
+				path.get(d).clear();
+			}
+			path.get(word.length()).isFinal = true;
+
+			last = word;
+			numWords++;
+		}
+
+		/** Return the finished dictionary.  The builder cannot be used
+		 * afterwards. */
+		public DictionaryDAWG build()
+		{
+			return new DictionaryDAWG(this);
+		}
+
+		/** Close every open state and return the start state */
+		private int finish()
+		{
+			if (built) {
+				throw new IllegalStateException("The dictionary has already been built");
+			}
+			built = true;
+			closePath(0);
+			return close(path.get(0));
+		}
+
+		/** Close the open states below depth, deepest first, linking each to
+		 * the open state above it */
+		private void closePath(int depth)
+		{
+			for (int d = last.length(); d > depth; d--) {
+				int state = close(path.get(d));
+				path.get(d - 1).addArc(last.charAt(d - 1), state);
+			}
+		}
+
+		/** Return a closed state equal to the open one, adding it if there
+		 * is none yet */
+		private int close(OpenState open)
+		{
+			int hash = open.hashCode();
+			int mask = register.length - 1;
+			for (int slot = hash & mask; register[slot] != 0; slot = (slot + 1) & mask) {
+				if (open.sameAs(this, register[slot] - 1)) {
+					return register[slot] - 1;
+				}
+			}
+
+			// not seen before: store it
+			if (numStates + 1 >= firstArc.length) {
+				firstArc = Arrays.copyOf(firstArc, firstArc.length * 2);
+				isFinal = Arrays.copyOf(isFinal, isFinal.length * 2);
+			}
+			if (numArcs + open.numArcs > labels.length) {
+				int capacity = Math.max(labels.length * 2, numArcs + open.numArcs);
+				labels = Arrays.copyOf(labels, capacity);
+				targets = Arrays.copyOf(targets, capacity);
+			}
+			int state = numStates++;
+			firstArc[state] = numArcs;
+			isFinal[state] = open.isFinal;
+			System.arraycopy(open.labels, 0, labels, numArcs, open.numArcs);
+			System.arraycopy(open.targets, 0, targets, numArcs, open.numArcs);
+			numArcs += open.numArcs;
+			firstArc[numStates] = numArcs;
+
+			if (2 * numStates > register.length) {
+				rehash();
+			}
+			else {
+				insert(hash, state);
+			}
+			return state;
+		}
+
+		private void insert(int hash, int state)
+		{
+			int mask = register.length - 1;
+			int slot = hash & mask;
+			while (register[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			register[slot] = state + 1;
+		}
+
+		private void rehash()
+		{
+			register = new int[register.length * 2];
+			for (int state = 0; state < numStates; state++) {
+				insert(hashState(state), state);
+			}
+		}
+
+		/** Return the hash of a closed state, equal to the hash of an open
+		 * state with the same arcs */
+		private int hashState(int state)
+		{
+			int hash = isFinal[state] ? 1 : 0;
+			for (int arc = firstArc[state]; arc < firstArc[state + 1]; arc++) {
+				hash = 31 * (31 * hash + labels[arc]) + targets[arc];
+			}
+			return mix(hash);
+		}
+
+		private static int mix(int hash)
+		{
+			hash *= 0x9E3779B9;
+			return hash ^ (hash >>> 16);
+		}
+	}
+
+	/* A state on the path of the last word added, with the arcs to states
+	 * that have already been closed */
+	private static class OpenState {
+		private char[] labels = new char[4];
+		private int[] targets = new int[4];
+		private int numArcs = 0;
+		private boolean isFinal = false;
+
+		public void clear()
+		{
+			numArcs = 0;
+			isFinal = false;
+		}
+
+		public void addArc(char label, int target)
+		{
+			if (numArcs == labels.length) {
+				labels = Arrays.copyOf(labels, numArcs * 2);
+				targets = Arrays.copyOf(targets, numArcs * 2);
+			}
+			labels[numArcs] = label;
+			targets[numArcs] = target;
+			numArcs++;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			int hash = isFinal ? 1 : 0;
+			for (int arc = 0; arc < numArcs; arc++) {
+				hash = 31 * (31 * hash + labels[arc]) + targets[arc];
+			}
+			return Builder.mix(hash);
+		}
+
+		/** Return whether this has the same arcs as a closed state */
+		public boolean sameAs(Builder builder, int state)
+		{
+			int first = builder.firstArc[state];
+			if (builder.isFinal[state] != isFinal || builder.firstArc[state + 1] - first != numArcs) {
+				return false;
+			}
+			for (int arc = 0; arc < numArcs; arc++) {
+				if (builder.labels[first + arc] != labels[arc]
+						|| builder.targets[first + arc] != targets[arc]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/** Build the automaton for a dictionary file and compare its size with
+	 * a trie holding the same words.
+	 *
+	 * Usage: java spelling.DictionaryDAWG [dictionary file]
+	 */
+	public static void main(String[] args)
+	{
+		String dictFile = args.length > 0 ? args[0] : "data/dict.txt";
+		List<String> words = DictionaryLoader.readWords(dictFile);
+
+		long startTime = System.nanoTime();
+		DictionaryDAWG dawg = DictionaryDAWG.build(words);
+		long buildTime = System.nanoTime() - startTime;
+
+		AutoCompleteCompactTrie trie = new AutoCompleteCompactTrie();
+		for (String word : words) {
+			trie.addWord(word);
+		}
+
+		System.out.println(String.format("%d words in %.1f ms: %d states, %d arcs, %,d bytes, "
+				+ "%.1f bytes/word", dawg.size(), buildTime / 1e6, dawg.getNumStates(),
+				dawg.getNumArcs(), dawg.getNumBytes(), (double) dawg.getNumBytes() / dawg.size()));
+		System.out.println(String.format("the same words in a trie: %d nodes", trie.getNumNodes()));
+
+		int missing = 0;
+		for (String word : words) {
+			if (!dawg.isWord(word)) {
+				missing++;
+			}
+		}
+		System.out.println(missing == 0 ? "all words found" : missing + " words missing");
+	}
+}
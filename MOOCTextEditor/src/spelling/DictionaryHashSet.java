@@ -9,7 +9,10 @@ import java.util.Scanner;
 
 
 /**
- * A class that implements the Dictionary interface with a HashSet
+ * A class that implements the Dictionary interface with a HashSet.
+ * A HashSet can only be searched with a String equal to the word, so
+ * isWord on a range of text copies the range to a lower case String;
+ * DictionaryArenaHash looks ranges up in place.
  */
 public class DictionaryHashSet implements Dictionary 
 {
@@ -31,6 +34,19 @@ public class DictionaryHashSet implements Dictionary
 		return words.add(word.toLowerCase());
 	}
 
+	/** Add all of these words to the dictionary, sizing the table for
+	 * them first so that it does not grow while they are added.
+	 * @param newWords The words to add
+	 * @return The number of words that were added */
+	@Override
+	public int addWords(String[] newWords)
+	{
+		if (words.isEmpty()) {
+			words = new HashSet<String>(Math.max(16, (int) (newWords.length / 0.75f) + 1));
+		}
+		return Dictionary.super.addWords(newWords);
+	}
+
 	/** Return the number of words in the dictionary */
     @Override
 	public int size()
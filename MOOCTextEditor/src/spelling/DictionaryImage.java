@@ -0,0 +1,300 @@
+package spelling;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads and writes dictionaries as binary images, so that a dictionary
+ * can be loaded without reading and parsing its word list.
+ *
+ * An image holds the arrays of an AutoCompleteCompactTrie or a
+ * DictionaryDAWG exactly as they are in memory, after a header with a
+ * magic number, a format version and the kind of dictionary.  Loading an
+ * image maps the file and copies each array out of it in bulk, which takes
+ * a few milliseconds for data/dict.txt instead of the time to lower-case
+ * and insert every word.  The arrays are copied rather than used in place
+ * so that the loaded dictionary can still have words added to it.
+ *
+ * Usage: java spelling.DictionaryImage [trie|dawg] wordFile imageFile
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ *
+ */
+public class DictionaryImage {
+
+	// "MDIC", the first four bytes of every image
+	private static final int MAGIC = 0x4D444943;
+
+	// Changed whenever the layout of an image changes, so that old images
+	// are rebuilt instead of being misread
+	public static final int VERSION = 1;
+
+	private static final int TRIE = 1;
+	private static final int DAWG = 2;
+
+	private static final int HEADER_BYTES = 12;
+
+	/** Write a trie to an image file.  The image is written to a
+	 * temporary file first, so a reader never sees half an image. */
+	public static void write(AutoCompleteCompactTrie trie, Path file) throws IOException
+	{
+		int numNodes = trie.getNumNodes();
+		ByteBuffer buffer = allocate(HEADER_BYTES + 8 + 15L * numNodes);
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(TRIE);
+		buffer.putInt(numNodes).putInt(trie.size());
+		buffer.asCharBuffer().put(trie.labels, 0, numNodes);
+		buffer.position(buffer.position() + 2 * numNodes);
+		putInts(buffer, trie.firstChild, numNodes);
+		putInts(buffer, trie.nextSibling, numNodes);
+		putInts(buffer, trie.parent, numNodes);
+		putBooleans(buffer, trie.endsWord, numNodes);
+		save(buffer, file);
+	}
+
+	/** Write a DAWG to an image file.  Words added to it after it was
+	 * built are not written. */
+	public static void write(DictionaryDAWG dawg, Path file) throws IOException
+	{
+		int numStates = dawg.isFinal.length;
+		int numArcs = dawg.labels.length;
+		ByteBuffer buffer = allocate(HEADER_BYTES + 16 + 4L * (numStates + 1)
+				+ 6L * numArcs + numStates);
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(DAWG);
+		buffer.putInt(numStates).putInt(numArcs).putInt(dawg.start).putInt(dawg.numWords);
+		putInts(buffer, dawg.firstArc, numStates + 1);
+		buffer.asCharBuffer().put(dawg.labels, 0, numArcs);
+		buffer.position(buffer.position() + 2 * numArcs);
+		putInts(buffer, dawg.targets, numArcs);
+		putBooleans(buffer, dawg.isFinal, numStates);
+		save(buffer, file);
+	}
+
+	/** Load a trie from an image file
+	 *
+	 * @throws IOException if the file cannot be read, or is not a trie
+	 * image of the current version
+	 */
+	public static AutoCompleteCompactTrie readTrie(Path file) throws IOException
+	{
+		ByteBuffer buffer = map(file, TRIE);
+		int numNodes = buffer.getInt();
+		int size = buffer.getInt();
+		require(file, numNodes > 0 && size >= 0
+				&& buffer.remaining() == 2L * numNodes + 12L * numNodes + numNodes);
+
+		char[] labels = new char[numNodes];
+		buffer.asCharBuffer().get(labels);
+		buffer.position(buffer.position() + 2 * numNodes);
+		int[] firstChild = getInts(buffer, numNodes);
+		int[] nextSibling = getInts(buffer, numNodes);
+		int[] parent = getInts(buffer, numNodes);
+		boolean[] endsWord = getBooleans(buffer, numNodes);
+		return new AutoCompleteCompactTrie(labels, firstChild, nextSibling, parent,
+				endsWord, numNodes, size);
+	}
+
+	/** Load a DAWG from an image file
+	 *
+	 * @throws IOException if the file cannot be read, or is not a DAWG
+	 * image of the current version
+	 */
+	public static DictionaryDAWG readDAWG(Path file) throws IOException
+	{
+		ByteBuffer buffer = map(file, DAWG);
+		int numStates = buffer.getInt();
+		int numArcs = buffer.getInt();
+		int start = buffer.getInt();
+		int numWords = buffer.getInt();
+		require(file, numStates > 0 && numArcs >= 0 && start >= 0 && start < numStates
+				&& numWords >= 0
+				&& buffer.remaining() == 4L * (numStates + 1) + 6L * numArcs + numStates);
+
+		int[] firstArc = getInts(buffer, numStates + 1);
+		char[] labels = new char[numArcs];
+		buffer.asCharBuffer().get(labels);
+		buffer.position(buffer.position() + 2 * numArcs);
+		int[] targets = getInts(buffer, numArcs);
+		boolean[] isFinal = getBooleans(buffer, numStates);
+		return new DictionaryDAWG(firstArc, labels, targets, isFinal, start, numWords);
+	}
+
+	/** Return the trie for a word list, loading it from its image if the
+	 * image is newer than the word list.  Otherwise the trie is built from
+	 * the word list and the image is rewritten for next time; if that
+	 * fails, the trie is still returned.
+	 *
+	 * @param wordFile The word list, one word per line
+	 * @param imageFile The image of the word list
+	 * @return The trie holding the words
+	 */
+	public static AutoCompleteCompactTrie loadTrie(String wordFile, String imageFile)
+	{
+		Path image = Paths.get(imageFile);
+		if (isUpToDate(image, Paths.get(wordFile))) {
+			try {
+				return readTrie(image);
+			}
+			catch (IOException e) {
+				System.err.println("Rebuilding dictionary image " + imageFile + ": " + e.getMessage());
+			}
+		}
+
+		AutoCompleteCompactTrie trie = new AutoCompleteCompactTrie();
+		try {
+			DictionaryLoader.bulkLoadDictionary(trie, Paths.get(wordFile), StandardCharsets.UTF_8);
+		}
+		catch (IOException e) {
+			System.err.println("Problem loading dictionary file: " + wordFile);
+			e.printStackTrace();
+			return trie;
+		}
+		try {
+			write(trie, image);
+		}
+		catch (IOException e) {
+			System.err.println("Could not write dictionary image " + imageFile + ": " + e.getMessage());
+		}
+		return trie;
+	}
+
+	/** Return whether the image exists and was written after the word
+	 * list last changed */
+	private static boolean isUpToDate(Path image, Path wordFile)
+	{
+		try {
+			return Files.isRegularFile(image) && Files.getLastModifiedTime(image)
+					.compareTo(Files.getLastModifiedTime(wordFile)) >= 0;
+		}
+		catch (IOException e) {
+			return false;
+		}
+	}
+
+	private static ByteBuffer allocate(long bytes)
+	{
+		if (bytes > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Dictionary too large for an image: " + bytes + " bytes");
+		}
+		return ByteBuffer.allocate((int) bytes).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private static void putInts(ByteBuffer buffer, int[] values, int length)
+	{
+		buffer.asIntBuffer().put(values, 0, length);
+		buffer.position(buffer.position() + 4 * length);
+	}
+
+	private static void putBooleans(ByteBuffer buffer, boolean[] values, int length)
+	{
+		for (int i = 0; i < length; i++) {
+			buffer.put(values[i] ? (byte) 1 : (byte) 0);
+		}
+	}
+
+	private static int[] getInts(ByteBuffer buffer, int length)
+	{
+		int[] values = new int[length];
+		buffer.asIntBuffer().get(values);
+		buffer.position(buffer.position() + 4 * length);
+		return values;
+	}
+
+	private static boolean[] getBooleans(ByteBuffer buffer, int length)
+	{
+		boolean[] values = new boolean[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = buffer.get() != 0;
+		}
+		return values;
+	}
+
+	private static void save(ByteBuffer buffer, Path file) throws IOException
+	{
+		buffer.flip();
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/** Map an image and check its header, leaving the buffer just after it */
+	private static ByteBuffer map(Path file, int kind) throws IOException
+	{
+		MappedByteBuffer mapped;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			require(file, channel.size() >= HEADER_BYTES && channel.size() <= Integer.MAX_VALUE);
+			mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+		require(file, buffer.getInt() == MAGIC);
+		int version = buffer.getInt();
+		if (version != VERSION) {
+			throw new IOException(file + " is a version " + version + " image, expected version " + VERSION);
+		}
+		int found = buffer.getInt();
+		if (found != kind) {
+			throw new IOException(file + " holds a " + (found == TRIE ? "trie" : found == DAWG ? "DAWG" : "unknown")
+					+ " image, expected a " + (kind == TRIE ? "trie" : "DAWG"));
+		}
+		return buffer;
+	}
+
+	private static void require(Path file, boolean valid) throws IOException
+	{
+		if (!valid) {
+			throw new IOException(file + " is not a valid dictionary image");
+		}
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length != 3 || !(args[0].equals("trie") || args[0].equals("dawg"))) {
+			System.err.println("Usage: java spelling.DictionaryImage [trie|dawg] wordFile imageFile");
+			System.exit(2);
+		}
+		Path image = Paths.get(args[2]);
+
+		long startTime = System.nanoTime();
+		Dictionary dict;
+		if (args[0].equals("trie")) {
+			AutoCompleteCompactTrie trie = new AutoCompleteCompactTrie();
+			DictionaryLoader.bulkLoadDictionary(trie, Paths.get(args[1]), StandardCharsets.UTF_8);
+			write(trie, image);
+			dict = trie;
+		}
+		else {
+			DictionaryDAWG dawg = new DictionaryDAWG();
+			DictionaryLoader.bulkLoadDictionary(dawg, Paths.get(args[1]), StandardCharsets.UTF_8);
+			write(dawg, image);
+			dict = dawg;
+		}
+		long buildTime = System.nanoTime() - startTime;
+
+		startTime = System.nanoTime();
+		Dictionary loaded = args[0].equals("trie") ? readTrie(image) : readDAWG(image);
+		long loadTime = System.nanoTime() - startTime;
+
+		System.out.println(String.format("%d words from %s: built in %.1f ms, %,d byte image %s "
+				+ "loads in %.1f ms with %d words", dict.size(), args[1], buildTime / 1e6,
+				new File(args[2]).length(), args[2], loadTime / 1e6, loaded.size()));
+	}
+}
@@ -1,5 +1,6 @@
 package spelling;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 
 /**
@@ -25,12 +26,27 @@ public class DictionaryLL implements Dictionary
      * (it wasn't already there). */
     public boolean addWord(String word) {
         String wordLowercase = word.toLowerCase();
-        if (!this.isWord(wordLowercase)) {
-            return this.dict.add(word.toLowerCase());
+        if (!this.dict.contains(wordLowercase)) {
+            return this.dict.add(wordLowercase);
         }
         return false;
     }
 
+    /** Add all of these words to the dictionary.  If the dictionary is
+     * empty, the distinct words are appended in one go, instead of
+     * searching the list before adding each one.
+     * @param words The words to add
+     * @return The number of words that were added */
+    @Override
+    public int addWords(String[] words) {
+        if (!this.dict.isEmpty()) {
+            return Dictionary.super.addWords(words);
+        }
+        String[] sorted = DictionaryLoader.sortWords(words);
+        this.dict.addAll(Arrays.asList(sorted));
+        return sorted.length;
+    }
+
     /** Return the number of words in the dictionary */
     public int size() {
         return this.dict.size();
@@ -38,7 +54,19 @@ public class DictionaryLL implements Dictionary
 
     /** Is this a word according to this dictionary? */
     public boolean isWord(String s) {
-        return this.dict.contains(s.toLowerCase());
+        return this.isWord(s, 0, s.length());
+    }
+
+    /** Is text[start, end) a word according to this dictionary?  Each
+     * word is compared with the range, lower casing it as it goes. */
+    @Override
+    public boolean isWord(CharSequence text, int start, int end) {
+        for (String word : this.dict) {
+            if (CaseFolding.matches(word, text, start, end)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     
@@ -3,9 +3,25 @@ package spelling;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
+/** Loads dictionaries from files with one word per line.  Files are read
+ * in the platform's default charset unless a charset is given.
+ */
 public class DictionaryLoader {
 
+    // Files smaller than this are parsed on the calling thread
+    private static final int MIN_CHUNK_BYTES = 1 << 18;
+
     /** Load the words from the dictionary file into the dictionary
      * 
      * @param d  The dictionary to load
@@ -17,7 +33,7 @@ public class DictionaryLoader {
         BufferedReader reader = null;
         try {
             String nextWord;
-            reader = new BufferedReader(new FileReader(filename));
+            reader = open(filename);
             while ((nextWord = reader.readLine()) != null) {
                 d.addWord(nextWord);
             }
@@ -40,7 +56,7 @@ public class DictionaryLoader {
         BufferedReader reader = null;
         try {
             String nextWord;
-            reader = new BufferedReader(new FileReader(filename));
+            reader = open(filename);
             int numLoaded = 0;
             while ((nextWord = reader.readLine()) != null && numLoaded < nWords) {
                 d.addWord(nextWord);
@@ -56,4 +72,209 @@ public class DictionaryLoader {
         }    	
     	
     }
+
+    /** Read the words from the dictionary file into a list, in file order
+     * 
+     * @param filename The file containing the words to load.  Each word must be on a separate line.
+     * @return The words in the file
+     */
+    public static List<String> readWords(String filename)
+    {
+        List<String> words = new ArrayList<String>();
+        try (BufferedReader reader = open(filename)) {
+            String nextWord;
+            while ((nextWord = reader.readLine()) != null) {
+                words.add(nextWord);
+            }
+        } catch (IOException e) {
+            System.err.println("Problem loading dictionary file: " + filename);
+            e.printStackTrace();
+        }
+        return words;
+    }
+
+    /** Open a file of words in the platform's default charset */
+    private static BufferedReader open(String filename) throws IOException
+    {
+        return new BufferedReader(new FileReader(filename));
+    }
+
+    /** Read the words from a dictionary file, converted to lower case,
+     * sorted and with duplicates and blank lines removed.  Large files in
+     * a charset that encodes a newline as a single '\n' byte, such as UTF-8,
+     * are split at line ends and parsed in parallel.
+     * 
+     * @param file The file containing the words to load, one per line
+     * @param charset The charset of the file
+     * @return The distinct words in the file, sorted
+     */
+    public static String[] readSortedWords(Path file, Charset charset) throws IOException
+    {
+        byte[] bytes = Files.readAllBytes(file);
+
+        int numChunks = 1;
+        if (Arrays.equals("\n".getBytes(charset), new byte[] {'\n'})) {
+            int parallelism = ForkJoinPool.getCommonPoolParallelism();
+            numChunks = Math.max(1, Math.min(bytes.length / MIN_CHUNK_BYTES, 4 * parallelism));
+        }
+
+        // split after the first newline at or after each chunk's share
+        int[] bounds = new int[numChunks + 1];
+        for (int i = 1; i < numChunks; i++) {
+            int bound = Math.max(bounds[i - 1], (int) ((long) bytes.length * i / numChunks));
+            while (bound < bytes.length && bytes[bound] != '\n') {
+                bound++;
+            }
+            bounds[i] = Math.min(bound + 1, bytes.length);
+        }
+        bounds[numChunks] = bytes.length;
+
+        String[][] chunks = IntStream.range(0, numChunks).parallel()
+                .mapToObj(i -> parseLines(new String(bytes, bounds[i], bounds[i + 1] - bounds[i], charset)))
+                .toArray(String[][]::new);
+
+        int numWords = 0;
+        for (String[] chunk : chunks) {
+            numWords += chunk.length;
+        }
+        String[] words = new String[numWords];
+        int next = 0;
+        for (String[] chunk : chunks) {
+            System.arraycopy(chunk, 0, words, next, chunk.length);
+            next += chunk.length;
+        }
+        return sortWords(words);
+    }
+
+    /** Return the lower case words on the lines of text, skipping blank lines */
+    private static String[] parseLines(String text)
+    {
+        List<String> words = new ArrayList<String>();
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf('\n', start);
+            if (end < 0) {
+                end = text.length();
+            }
+            int next = end + 1;
+            if (end > start && text.charAt(end - 1) == '\r') {
+                end--;
+            }
+            if (end > start) {
+                words.add(text.substring(start, end).toLowerCase());
+            }
+            start = next;
+        }
+        return words.toArray(new String[words.size()]);
+    }
+
+    /** Return the words converted to lower case, sorted and without
+     * duplicates.  If they already are, the same array is returned.
+     */
+    static String[] sortWords(String[] words)
+    {
+        boolean sorted = true;
+        for (int i = 0; i < words.length && sorted; i++) {
+            sorted = (i == 0 || words[i - 1].compareTo(words[i]) < 0)
+                    && words[i].toLowerCase().equals(words[i]);
+        }
+        if (sorted) {
+            return words;
+        }
+
+        String[] lowerCase = new String[words.length];
+        for (int i = 0; i < words.length; i++) {
+            lowerCase[i] = words[i].toLowerCase();
+        }
+        Arrays.parallelSort(lowerCase);
+
+        int numDistinct = 0;
+        for (String word : lowerCase) {
+            if (numDistinct == 0 || !word.equals(lowerCase[numDistinct - 1])) {
+                lowerCase[numDistinct++] = word;
+            }
+        }
+        return numDistinct == lowerCase.length ? lowerCase : Arrays.copyOf(lowerCase, numDistinct);
+    }
+
+    /** Load all the words from a dictionary file into the dictionary at
+     * once, using Dictionary.addWords with the words sorted
+     * 
+     * @param d  The dictionary to load
+     * @param file The file containing the words to load, one per line
+     * @param charset The charset of the file
+     * @return The number of words added to the dictionary
+     */
+    public static int bulkLoadDictionary(Dictionary d, Path file, Charset charset) throws IOException
+    {
+        return d.addWords(readSortedWords(file, charset));
+    }
+
+    /** Time loading a dictionary file into each kind of Dictionary, one
+     * word at a time and in bulk, and print the words loaded per second.
+     * Each load is repeated and the fastest time is kept.
+     * 
+     * Usage: java spelling.DictionaryLoader [dictionary file]
+     */
+    public static void main(String[] args) throws IOException
+    {
+        String dictFile = args.length > 0 ? args[0] : "data/dict.txt";
+        Path dictPath = Paths.get(dictFile);
+        String[] names = {"DictionaryBST", "DictionaryHashSet", "DictionaryLL",
+                "AutoCompleteDictionaryTrie", "AutoCompleteCompactTrie", "DictionaryDAWG"};
+        int rounds = 10;
+
+        long best = Long.MAX_VALUE;
+        int numWords = 0;
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            numWords = readSortedWords(dictPath, StandardCharsets.UTF_8).length;
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        report("readSortedWords", numWords, best);
+
+        for (String name : names) {
+            // adding one at a time to a linked list takes quadratic time,
+            // and a DAWG can only be built from all the words at once
+            if (!name.equals("DictionaryLL") && !name.equals("DictionaryDAWG")) {
+                best = Long.MAX_VALUE;
+                for (int round = 0; round < rounds; round++) {
+                    Dictionary d = create(name);
+                    long start = System.nanoTime();
+                    loadDictionary(d, dictFile);
+                    best = Math.min(best, System.nanoTime() - start);
+                    numWords = d.size();
+                }
+                report(name + " loadDictionary", numWords, best);
+            }
+
+            best = Long.MAX_VALUE;
+            for (int round = 0; round < rounds; round++) {
+                Dictionary d = create(name);
+                long start = System.nanoTime();
+                bulkLoadDictionary(d, dictPath, StandardCharsets.UTF_8);
+                best = Math.min(best, System.nanoTime() - start);
+                numWords = d.size();
+            }
+            report(name + " bulkLoadDictionary", numWords, best);
+        }
+    }
+
+    private static Dictionary create(String name)
+    {
+        switch (name) {
+        case "DictionaryBST": return new DictionaryBST();
+        case "DictionaryHashSet": return new DictionaryHashSet();
+        case "DictionaryLL": return new DictionaryLL();
+        case "AutoCompleteDictionaryTrie": return new AutoCompleteDictionaryTrie();
+        case "AutoCompleteCompactTrie": return new AutoCompleteCompactTrie();
+        default: return new DictionaryDAWG();
+        }
+    }
+
+    private static void report(String what, int numWords, long nanos)
+    {
+        System.out.println(String.format("  %-45s %7d words in %7.1f ms, %,12.0f words/s",
+                what, numWords, nanos / 1e6, numWords / (nanos / 1e9)));
+    }
 }
@@ -0,0 +1,187 @@
+package spelling;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import benchmark.MicroBenchmark;
+
+/** Benchmarks every Dictionary engine on data/dict.txt, looking up the
+ * words of data/warAndPeace.txt.  Unlike DictionaryBenchmarking it warms
+ * up each measurement, runs each engine in its own JVM, keeps the results
+ * alive so the work cannot be optimized away, and reports allocation as
+ * well as time.
+ *
+ * For each engine it measures:
+ *   load          building the dictionary from the lines of the file,
+ *                 with addWords
+ *   hit           isWord on the words of the text that are in the
+ *                 dictionary, in the order and with the frequencies they
+ *                 have in the text
+ *   miss          isWord on words that are not: the text's own non-words,
+ *                 and its words with one letter changed
+ *   spellCheck    isWord on each range of the text that the editor checks,
+ *                 without copying it out
+ *   complete:n    predictCompletions of prefixes of n letters taken from
+ *                 the words of the text, for engines that are AutoComplete
+ *   retained      the heap the loaded dictionary keeps, per word
+ *
+ * Each lookup is one operation, so ns/op is the time per word.
+ *
+ * Run with no arguments to benchmark everything, or with an engine name
+ * to benchmark one engine in this JVM.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ *
+ */
+public class DictionaryMicroBenchmark {
+
+	private static final String DICT_FILE = "data/dict.txt";
+	private static final String TEXT_FILE = "data/warAndPeace.txt";
+
+	// The prefix lengths to predict completions for
+	private static final int[] PREFIX_LENGTHS = {1, 2, 3, 4};
+
+	// The number of completions the editor asks for
+	private static final int NUM_COMPLETIONS = 6;
+
+	// Each engine, by name, given the number of words it will hold.  Add
+	// new Dictionary classes here.
+	private static final Map<String, IntFunction<Dictionary>> ENGINES = new LinkedHashMap<>();
+	static {
+		ENGINES.put("DictionaryLL", n -> new DictionaryLL());
+		ENGINES.put("DictionaryBST", n -> new DictionaryBST());
+		ENGINES.put("DictionaryHashSet", n -> new DictionaryHashSet());
+		ENGINES.put("DictionaryArenaHash", n -> new DictionaryArenaHash());
+		ENGINES.put("DictionaryBloomFilter", n -> new DictionaryBloomFilter(new DictionaryHashSet(), n, 0.01));
+		ENGINES.put("DictionaryDAWG", n -> new DictionaryDAWG());
+		ENGINES.put("AutoCompleteDictionaryTrie", n -> new AutoCompleteDictionaryTrie());
+		ENGINES.put("AutoCompleteCompactTrie", n -> new AutoCompleteCompactTrie());
+		ENGINES.put("AutoCompleteWeightedTrie", n -> new AutoCompleteWeightedTrie());
+		ENGINES.put("AutoCompleteConcurrentTrie", n -> new AutoCompleteConcurrentTrie());
+	}
+
+	public static void main(String [] args) throws Exception {
+		if (args.length == 0) {
+			System.out.println(MicroBenchmark.header());
+			for (String engine : ENGINES.keySet()) {
+				MicroBenchmark.fork(DictionaryMicroBenchmark.class, engine);
+			}
+			return;
+		}
+
+		String engine = args[0];
+		IntFunction<Dictionary> factory = ENGINES.get(engine);
+		if (factory == null) {
+			System.err.println("Unknown engine " + engine + ", expected one of " + ENGINES.keySet());
+			System.exit(1);
+		}
+
+		// the lines of the dictionary, as DictionaryLoader reads them
+		String[] lines = DictionaryLoader.readWords(DICT_FILE).toArray(new String[0]);
+		String prefix = engine + ".";
+
+		long before = usedMemory();
+		Dictionary dict = factory.apply(lines.length);
+		dict.addWords(DictionaryLoader.readWords(DICT_FILE).toArray(new String[0]));
+		long retained = usedMemory() - before;
+
+		// split the text as the spell checker does, and sort its words into
+		// hits and misses.  Every hit also gives a miss with a letter changed.
+		String text = new String(Files.readAllBytes(Paths.get(TEXT_FILE)), StandardCharsets.UTF_8);
+		DictionaryHashSet reference = new DictionaryHashSet();
+		reference.addWords(lines);
+		List<Integer> ranges = new ArrayList<Integer>();
+		List<String> hits = new ArrayList<String>();
+		List<String> misses = new ArrayList<String>();
+		Random random = new Random(42);
+		Matcher matcher = Pattern.compile("[\\w'-]+").matcher(text);
+		while (matcher.find()) {
+			ranges.add(matcher.start());
+			ranges.add(matcher.end());
+			String word = matcher.group();
+			if (reference.isWord(word)) {
+				hits.add(word);
+				int i = random.nextInt(word.length());
+				String typo = word.substring(0, i) + (char) ('a' + random.nextInt(26)) + word.substring(i + 1);
+				if (!reference.isWord(typo)) {
+					misses.add(typo);
+				}
+			}
+			else {
+				misses.add(word);
+			}
+		}
+
+		MicroBenchmark bench = new MicroBenchmark(3, 5, 1000);
+
+		System.out.println(bench.measure(prefix + "load",
+				() -> factory.apply(lines.length).addWords(lines)));
+		System.out.println(bench.measure(prefix + "hit",
+				lookups(dict, hits.toArray(new String[0]))));
+		System.out.println(bench.measure(prefix + "miss",
+				lookups(dict, misses.toArray(new String[0]))));
+
+		int[] bounds = new int[ranges.size()];
+		for (int i = 0; i < bounds.length; i++) {
+			bounds[i] = ranges.get(i);
+		}
+		int[] next = {0};
+		System.out.println(bench.measure(prefix + "spellCheck", () -> {
+			int i = next[0];
+			next[0] = i + 2 == bounds.length ? 0 : i + 2;
+			return dict.isWord(text, bounds[i], bounds[i + 1]) ? 1 : 0;
+		}));
+
+		if (dict instanceof AutoComplete) {
+			AutoComplete ac = (AutoComplete) dict;
+			for (int length : PREFIX_LENGTHS) {
+				List<String> prefixes = new ArrayList<String>();
+				for (String word : hits) {
+					if (word.length() > length) {
+						prefixes.add(word.substring(0, length).toLowerCase());
+					}
+				}
+				String[] stems = prefixes.toArray(new String[0]);
+				int[] nextStem = {0};
+				System.out.println(bench.measure(prefix + "complete:" + length, () -> {
+					int i = nextStem[0];
+					nextStem[0] = i + 1 == stems.length ? 0 : i + 1;
+					return ac.predictCompletions(stems[i], NUM_COMPLETIONS).size();
+				}));
+			}
+		}
+
+		System.out.println(String.format("%-40s %,16d bytes %,12.1f B/word",
+				prefix + "retained", retained, (double) retained / dict.size()));
+	}
+
+	/** Return an operation that looks up the next of these words each time
+	 * it is run, going round them in order */
+	private static MicroBenchmark.Operation lookups(Dictionary dict, String[] words)
+	{
+		int[] next = {0};
+		return () -> {
+			int i = next[0];
+			next[0] = i + 1 == words.length ? 0 : i + 1;
+			return dict.isWord(words[i]) ? 1 : 0;
+		};
+	}
+
+	private static long usedMemory()
+	{
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,171 @@
+/**
+ *
+ */
+package spelling;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests isWord on a range of a larger text, for every Dictionary, and that
+ * isWord gives the right answers when it is called from several threads
+ * at once.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ *
+ */
+public class DictionaryRangeTester {
+
+	private String dictFile = "data/words.small.txt";
+
+	// Words added one at a time after the word list, which the DAWG keeps
+	// apart from its automaton
+	private static final String[] LATER_WORDS = {"Zebrafish", "CAF\u00c9", "help-desk", "o'clock"};
+
+	// Each engine, by name.  Add new Dictionary classes here.
+	private static final Map<String, Supplier<Dictionary>> ENGINES = new LinkedHashMap<>();
+	static {
+		ENGINES.put("DictionaryLL", DictionaryLL::new);
+		ENGINES.put("DictionaryBST", DictionaryBST::new);
+		ENGINES.put("DictionaryHashSet", DictionaryHashSet::new);
+		ENGINES.put("DictionaryArenaHash", DictionaryArenaHash::new);
+		ENGINES.put("DictionaryBloomFilter", () -> new DictionaryBloomFilter(new DictionaryHashSet(), 10000, 0.01));
+		ENGINES.put("DictionaryDAWG", DictionaryDAWG::new);
+		ENGINES.put("AutoCompleteDictionaryTrie", AutoCompleteDictionaryTrie::new);
+		ENGINES.put("AutoCompleteCompactTrie", AutoCompleteCompactTrie::new);
+		ENGINES.put("AutoCompleteWeightedTrie", AutoCompleteWeightedTrie::new);
+		ENGINES.put("AutoCompleteConcurrentTrie", AutoCompleteConcurrentTrie::new);
+	}
+
+	private List<String> words;  // The words of dictFile, as they are in the file
+	private Set<String> expected;  // Every word in the dictionaries, in lower case
+	private Map<String, Dictionary> dicts;  // Each engine holding dictFile and LATER_WORDS
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception
+	{
+		words = DictionaryLoader.readWords(dictFile);
+		expected = new HashSet<String>();
+		for (String word : words) {
+			expected.add(word.toLowerCase());
+		}
+		for (String word : LATER_WORDS) {
+			expected.add(word.toLowerCase());
+		}
+
+		dicts = new LinkedHashMap<String, Dictionary>();
+		for (Map.Entry<String, Supplier<Dictionary>> engine : ENGINES.entrySet()) {
+			Dictionary dict = engine.getValue().get();
+			dict.addWords(words.toArray(new String[0]));
+			for (String word : LATER_WORDS) {
+				dict.addWord(word);
+			}
+			dicts.put(engine.getKey(), dict);
+		}
+	}
+
+	/** Test isWord on ranges of a sentence, including words added after
+	 * the word list and a word that is not ASCII */
+	@Test
+	public void testIsWordRange()
+	{
+		String text = "Say HELLO, then help the zebraFISH at the caf\u00e9! ";
+		StringBuilder builder = new StringBuilder(text);
+		for (Map.Entry<String, Dictionary> entry : dicts.entrySet()) {
+			String name = entry.getKey();
+			Dictionary dict = entry.getValue();
+			assertEquals(name + ": HELLO", true, dict.isWord(text, 4, 9));
+			assertEquals(name + ": help", true, dict.isWord(builder, 16, 20));
+			assertEquals(name + ": zebraFISH", true, dict.isWord(text, 25, 34));
+			assertEquals(name + ": caf\u00e9", true, dict.isWord(builder, 42, 46));
+
+			assertEquals(name + ": ELLO", false, dict.isWord(text, 5, 9));
+			assertEquals(name + ": caf", false, dict.isWord(text, 42, 45));
+			assertEquals(name + ": HELLO,", false, dict.isWord(text, 4, 10));
+			assertEquals(name + ": zebraFIS", false, dict.isWord(text, 25, 33));
+			assertEquals(name + ": empty range", false, dict.isWord(text, 4, 4));
+		}
+
+		for (Map.Entry<String, Supplier<Dictionary>> engine : ENGINES.entrySet()) {
+			assertEquals(engine.getKey() + " empty: HELLO", false, engine.getValue().get().isWord(text, 4, 9));
+		}
+	}
+
+	/** Test that isWord on a range always agrees with isWord on the String,
+	 * and with the words in the dictionary, for every word of the list in
+	 * upper case and for each with its last letter dropped */
+	@Test
+	public void testIsWordRangeMatchesString()
+	{
+		for (Map.Entry<String, Dictionary> entry : dicts.entrySet()) {
+			String name = entry.getKey();
+			Dictionary dict = entry.getValue();
+			for (String word : words) {
+				String text = "(" + word.toUpperCase() + ")";
+				assertEquals(name + ": " + word, true, dict.isWord(text, 1, word.length() + 1));
+
+				String shorter = word.substring(0, word.length() - 1);
+				boolean isWord = expected.contains(shorter.toLowerCase());
+				assertEquals(name + ": " + shorter, isWord, dict.isWord(shorter));
+				assertEquals(name + ": " + shorter, isWord, dict.isWord(text, 1, word.length()));
+			}
+		}
+	}
+
+	/** Test that isWord gives the right answers when several threads look
+	 * words up at once, as the spell checker and the suggestions may */
+	@Test
+	public void testConcurrentIsWord() throws InterruptedException
+	{
+		// every word, as it is and in upper case, and every word with a
+		// character that no word has
+		List<String> lookups = new ArrayList<String>();
+		for (String word : expected) {
+			lookups.add(word);
+			lookups.add(word.toUpperCase());
+			lookups.add(word + "#");
+		}
+
+		for (Map.Entry<String, Dictionary> entry : dicts.entrySet()) {
+			String name = entry.getKey();
+			Dictionary dict = entry.getValue();
+			int rounds = dict instanceof DictionaryLL ? 1 : 20;
+			AtomicInteger wrong = new AtomicInteger();
+			Thread[] readers = new Thread[4];
+			for (int t = 0; t < readers.length; t++) {
+				final int offset = t;
+				readers[t] = new Thread(() -> {
+					for (int round = 0; round < rounds; round++) {
+						for (int i = 0; i < lookups.size(); i++) {
+							String word = lookups.get((i + offset * 997) % lookups.size());
+							boolean isWord = !word.endsWith("#");
+							String text = " " + word + " ";
+							if (dict.isWord(word) != isWord || dict.isWord(text, 1, text.length() - 1) != isWord) {
+								wrong.incrementAndGet();
+							}
+						}
+					}
+				});
+				readers[t].start();
+			}
+			for (Thread reader : readers) {
+				reader.join();
+			}
+			assertEquals(name + ": wrong answers from concurrent isWord", 0, wrong.get());
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package spelling;
+
+import java.util.Arrays;
+
+/**
+ * An index from 32-bit hashes to the ids of the words filed under them,
+ * in three flat arrays: the sorted distinct hashes, where the ids for each
+ * hash start, and the ids themselves.  It is built once from (hash, id)
+ * pairs and not changed after, so several threads can read it.
+ *
+ * It also holds the hash that the indexes and hash tables of this package
+ * use: FNV-1a over the characters, with the bits then spread so that both
+ * the low bits and the order of the hashes are well mixed.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ *
+ */
+class HashIndex {
+
+	// The FNV-1a offset basis and prime, for 32 bits
+	static final int FNV_BASIS = 0x811c9dc5;
+	static final int FNV_PRIME = 0x01000193;
+
+	final int[] keys;  // The distinct hashes, sorted
+	final int[] starts;  // The ids for keys[i] are postings[starts[i]] to postings[starts[i + 1] - 1]
+	final int[] postings;  // The ids, grouped by hash
+
+	/** Build the index from pairs[0, numPairs), each a hash in the high 32
+	 * bits and an id in the low 32 bits.  The pairs are sorted in place. */
+	HashIndex(long[] pairs, int numPairs)
+	{
+		Arrays.sort(pairs, 0, numPairs);
+
+		int numKeys = 0;
+		for (int i = 0; i < numPairs; i++) {
+			if (i == 0 || (int) (pairs[i] >> 32) != (int) (pairs[i - 1] >> 32)) {
+				numKeys++;
+			}
+		}
+		keys = new int[numKeys];
+		starts = new int[numKeys + 1];
+		postings = new int[numPairs];
+		int key = -1;
+		for (int i = 0; i < numPairs; i++) {
+			int hash = (int) (pairs[i] >> 32);
+			if (key < 0 || hash != keys[key]) {
+				keys[++key] = hash;
+				starts[key] = i;
+			}
+			postings[i] = (int) pairs[i];
+		}
+		starts[numKeys] = numPairs;
+	}
+
+	/** Return the index in keys of hash, or a negative number if no id is
+	 * filed under it */
+	int find(int hash)
+	{
+		return Arrays.binarySearch(keys, hash);
+	}
+
+	/** Return the number of bytes in the three arrays */
+	long bytes()
+	{
+		return 4L * (keys.length + starts.length + postings.length);
+	}
+
+	/** Return pairs with (hash, id) appended at numPairs, growing it if it
+	 * is full */
+	static long[] add(long[] pairs, int numPairs, int hash, int id)
+	{
+		if (numPairs == pairs.length) {
+			pairs = Arrays.copyOf(pairs, Math.max(16, 2 * pairs.length));
+		}
+		pairs[numPairs] = (long) hash << 32 | id;
+		return pairs;
+	}
+
+	/** Return the hash of chars[0, length) */
+	static int hash(char[] chars, int length)
+	{
+		int hash = FNV_BASIS;
+		for (int i = 0; i < length; i++) {
+			hash ^= chars[i];
+			hash *= FNV_PRIME;
+		}
+		return spread(hash);
+	}
+
+	/** Return the hash of text[start, end) in lower case */
+	static int hashLowerCase(CharSequence text, int start, int end)
+	{
+		int hash = FNV_BASIS;
+		for (int i = start; i < end; i++) {
+			hash ^= Character.toLowerCase(text.charAt(i));
+			hash *= FNV_PRIME;
+		}
+		return spread(hash);
+	}
+
+	/** Spread the bits of an FNV-1a hash, as the first steps of
+	 * MurmurHash3's finalizer do */
+	static int spread(int hash)
+	{
+		hash ^= hash >>> 16;
+		hash *= 0x85ebca6b;
+		hash ^= hash >>> 13;
+		return hash;
+	}
+}
@@ -3,13 +3,20 @@
  */
 package spelling;
 
+import java.nio.CharBuffer;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
 
 /**
+ * Nearby words are made in one reused buffer and handed to a
+ * NeighborVisitor, so that a String is only made for those the caller
+ * keeps.  Each String is made once: the edits that would give the same
+ * String again (inserting or deleting either of two equal letters) are
+ * skipped.  A NearbyWords must not be used by several threads at once.
+ *
  * @author UC San Diego Intermediate MOOC team
  */
 public class NearbyWords implements SpellingSuggest {
@@ -20,10 +27,26 @@ public class NearbyWords implements SpellingSuggest {
 
     Dictionary dict;
 
+    private char[] word = new char[16];  // The word whose neighbors are being made
+    private int length;  // The length of word
+    private char[] buffer = new char[17];  // Each neighbor in turn
+    private CharBuffer view = CharBuffer.wrap(buffer);  // buffer, for the dictionary to look up
+    private StringSet visited = new StringSet();  // The strings suggestions has seen, reused between calls
+
     public NearbyWords(Dictionary dict) {
         this.dict = dict;
     }
 
+    /**
+     * Receives the strings one modification away from a word.  Each string
+     * is chars[0, length) of a buffer that is reused for the next one, so
+     * it must be copied to be kept.  A visitor must not use the NearbyWords
+     * that is visiting it.
+     */
+    public interface NeighborVisitor {
+        void visit(char[] chars, int length);
+    }
+
     /**
      * Return the list of Strings that are one modification away
      * from the input string.
@@ -34,12 +57,25 @@ public class NearbyWords implements SpellingSuggest {
      */
     public List<String> distanceOne(String s, boolean wordsOnly) {
         List<String> retList = new ArrayList<String>();
-        insertions(s, retList, wordsOnly);
-        substitution(s, retList, wordsOnly);
-        deletions(s, retList, wordsOnly);
+        distanceOne(s, wordsOnly, (chars, length) -> retList.add(new String(chars, 0, length)));
         return retList;
     }
 
+    /**
+     * Visit each String one modification away from the input string once,
+     * in the order distanceOne returns them, without making any of them.
+     *
+     * @param s         The original String
+     * @param wordsOnly controls whether to visit only words or any String
+     * @param visitor   is given each nearby String
+     */
+    public void distanceOne(String s, boolean wordsOnly, NeighborVisitor visitor) {
+        load(s);
+        visitInsertions(wordsOnly, visitor);
+        visitSubstitutions(wordsOnly, visitor);
+        visitDeletions(wordsOnly, visitor);
+    }
+
 
     /**
      * Add to the currentList Strings that are one character mutation away
@@ -51,34 +87,24 @@ public class NearbyWords implements SpellingSuggest {
      * @return
      */
     public void substitution(String s, List<String> currentList, boolean wordsOnly) {
-        // for each letter in the s and for all possible replacement characters
-        for (int index = 0; index < s.length(); index++) {
-            for (int charCode = (int) 'a'; charCode <= (int) 'z'; charCode++) {
-                // use StringBuffer for an easy interface to permuting the
-                // letters in the String
-                StringBuffer sb = new StringBuffer(s);
-                sb.setCharAt(index, (char) charCode);
-
-                this.addStringToList(s, currentList, sb.toString(), wordsOnly);
-            }
-        }
+        load(s);
+        visitSubstitutions(wordsOnly, addingTo(currentList));
     }
 
     /**
-     * if the item isn't in the list, isn't the original string, and
-     * (if wordsOnly is true) is a real word, add to the list
+     * Return a visitor that adds each String to the list if it isn't
+     * already there
      *
-     * @param originalString The original string
-     * @param list           list of words
-     * @param string         string to compare
-     * @param wordsOnly      controls whether to return only words or any String
+     * @param list list of words
+     * @return the visitor
      */
-    private void addStringToList(String originalString, List<String> list, String string, boolean wordsOnly) {
-        if (!list.contains(string) &&
-                (!wordsOnly || dict.isWord(string)) &&
-                !originalString.equals(string)) {
-            list.add(string);
-        }
+    private NeighborVisitor addingTo(List<String> list) {
+        return (chars, length) -> {
+            String string = new String(chars, 0, length);
+            if (!list.contains(string)) {
+                list.add(string);
+            }
+        };
     }
 
     /**
@@ -91,26 +117,8 @@ public class NearbyWords implements SpellingSuggest {
      * @return
      */
     public void insertions(String s, List<String> currentList, boolean wordsOnly) {
-        // for each letter in the s and for all possible characters
-        for (int index = 0; index < s.length(); index++) {
-            for (int charCode = (int) 'a'; charCode <= (int) 'z'; charCode++) {
-                // use StringBuffer for an easy interface to permuting the
-                // letters in the String
-                StringBuffer sb = new StringBuffer(s);
-
-                // index 0, insert to start
-                if (index == 0) {
-                    sb.insert(0, (char) charCode);
-                    this.addStringToList(s, currentList, sb.toString(), wordsOnly);
-
-                    // delete char at index 0 as we just inserted a char above
-                    sb.deleteCharAt(0);
-                }
-
-                sb.insert(index + 1, (char) charCode);
-                this.addStringToList(s, currentList, sb.toString(), wordsOnly);
-            }
-        }
+        load(s);
+        visitInsertions(wordsOnly, addingTo(currentList));
     }
 
     /**
@@ -123,14 +131,87 @@ public class NearbyWords implements SpellingSuggest {
      * @return
      */
     public void deletions(String s, List<String> currentList, boolean wordsOnly) {
-        // for each letter in the s and for all possible characters
-        for (int index = 0; index < s.length(); index++) {
-            // use StringBuffer for an easy interface to permuting the
-            // letters in the String
-            StringBuffer sb = new StringBuffer(s);
+        load(s);
+        visitDeletions(wordsOnly, addingTo(currentList));
+    }
+
+    /** Make s the word whose neighbors are made */
+    private void load(String s) {
+        load(s.length());
+        s.getChars(0, length, word, 0);
+    }
+
+    /** Make room for a word of this length and its neighbors */
+    private void load(int length) {
+        this.length = length;
+        if (word.length < length) {
+            word = new char[Math.max(length, 2 * word.length)];
+        }
+        if (buffer.length < length + 1) {
+            buffer = new char[word.length + 1];
+            view = CharBuffer.wrap(buffer);
+        }
+    }
+
+    /** Visit each letter inserted at each place in the word, in the order
+     * of index 0 inserting before and after the first letter, then after
+     * each of the others */
+    private void visitInsertions(boolean wordsOnly, NeighborVisitor visitor) {
+        for (int index = 0; index < length; index++) {
+            for (char c = 'a'; c <= 'z'; c++) {
+                if (index == 0) {
+                    insert(0, c, wordsOnly, visitor);
+                }
+                insert(index + 1, c, wordsOnly, visitor);
+            }
+        }
+    }
+
+    /** Visit the word with c inserted at index, unless c comes just after
+     * the same letter, where inserting it before that letter gave the same
+     * String */
+    private void insert(int index, char c, boolean wordsOnly, NeighborVisitor visitor) {
+        if (index > 0 && word[index - 1] == c) {
+            return;
+        }
+        System.arraycopy(word, 0, buffer, 0, index);
+        buffer[index] = c;
+        System.arraycopy(word, index, buffer, index + 1, length - index);
+        offer(length + 1, wordsOnly, visitor);
+    }
 
-            sb.deleteCharAt(index);
-            this.addStringToList(s, currentList, sb.toString(), wordsOnly);
+    /** Visit each letter in place of each letter of the word, except the
+     * letter that is there already */
+    private void visitSubstitutions(boolean wordsOnly, NeighborVisitor visitor) {
+        System.arraycopy(word, 0, buffer, 0, length);
+        for (int index = 0; index < length; index++) {
+            for (char c = 'a'; c <= 'z'; c++) {
+                if (c != word[index]) {
+                    buffer[index] = c;
+                    offer(length, wordsOnly, visitor);
+                }
+            }
+            buffer[index] = word[index];
+        }
+    }
+
+    /** Visit the word without each of its letters, except the second of two
+     * equal letters, which gives the same String as the first */
+    private void visitDeletions(boolean wordsOnly, NeighborVisitor visitor) {
+        for (int index = 0; index < length; index++) {
+            if (index > 0 && word[index] == word[index - 1]) {
+                continue;
+            }
+            System.arraycopy(word, 0, buffer, 0, index);
+            System.arraycopy(word, index + 1, buffer, index, length - index - 1);
+            offer(length - 1, wordsOnly, visitor);
+        }
+    }
+
+    /** Visit buffer[0, length) if it is a word or wordsOnly is false */
+    private void offer(int length, boolean wordsOnly, NeighborVisitor visitor) {
+        if (!wordsOnly || dict.isWord(view, 0, length)) {
+            visitor.visit(buffer, length);
         }
     }
 
@@ -150,48 +231,139 @@ public class NearbyWords implements SpellingSuggest {
 
         // initial variables
 
-        // Create a queue to hold words to explore
-        List<String> queue = new LinkedList<String>();
-
-        // Create a visited set to avoid looking at the same String repeatedly
-        HashSet<String> visited = new HashSet<String>();
+        // The visited Strings, in the order they were visited.  Every String
+        // is queued when it is first visited, so the queue is the Strings
+        // after the last one explored.
+        visited.clear();
 
         // Create list of real words to return when finished
         List<String> retList = new LinkedList<String>();
 
         // Number of string searched so we can limit using THRESHOLD
-        int numStringSearch = 0;
+        int[] numStringSearch = {0};
 
         // Add the initial word to the queue and visited
-        queue.add(word);
-        visited.add(word);
+        visited.add(word.toCharArray(), word.length());
+
+        // for each neighbor n (String one mutation away from curr)
+        NeighborVisitor visitor = (chars, length) -> {
+            numStringSearch[0]++;
+            // if n is not visited, add it to the visited set and the back of
+            // the queue, and if n is a word in the dictionary add it to the
+            // list of words to return
+            if (visited.add(chars, length) && retList.size() < numSuggestions
+                    && this.dict.isWord(view, 0, length)) {
+                retList.add(new String(chars, 0, length));
+            }
+        };
 
         // while the queue has elements and we need more suggestions
-        while (!queue.isEmpty() && numStringSearch <= THRESHOLD) {
-            // remove the word from the start of the queue and assign to curr
-            String curr = queue.remove(0);
-            // get a list of neighbors (strings one mutation away from curr)
-            List<String> neighbors = this.distanceOne(curr, false);
-            // for each n in the list of neighbors
-            for (String n : neighbors) {
-                // if n is not visited
-                if (!visited.contains(n)) {
-                    // add n to the visited set
-                    visited.add(n);
-                    // add n to the back of the queue
-                    queue.add(n);
-                    // if n is a word in the dictionary
-                    if (this.dict.isWord(n) && retList.size() < numSuggestions) {
-                        // add n to the list of words to return
-                        retList.add(n);
-                    }
+        for (int next = 0; next < visited.size() && numStringSearch[0] <= THRESHOLD
+                && retList.size() < numSuggestions; next++) {
+            // take the next String from the queue as curr
+            load(visited.length(next));
+            visited.getChars(next, this.word);
+            visitInsertions(false, visitor);
+            visitSubstitutions(false, visitor);
+            visitDeletions(false, visitor);
+        }
+
+        return retList;
+
+    }
+
+    /*
+     * A set of Strings kept as chars, end to end in one array, in the order
+     * they were added, with an open addressing hash table of their indexes.
+     * Adding a String that is not yet in the set copies its chars, and
+     * nothing else is allocated unless the set grows.
+     */
+    private static class StringSet {
+        private char[] chars = new char[1024];  // The Strings, end to end
+        private int[] ends = new int[128];  // Where each String ends in chars
+        private int[] hashes = new int[128];  // The hash of each String
+        private int size;
+        private int[] table = new int[256];  // Index + 1 of the String in each slot, 0 if empty
+        private int mask = table.length - 1;
+
+        void clear() {
+            size = 0;
+            Arrays.fill(table, 0);
+        }
+
+        int size() {
+            return size;
+        }
+
+        int length(int i) {
+            return ends[i] - start(i);
+        }
+
+        /** Copy String i to the start of to */
+        void getChars(int i, char[] to) {
+            System.arraycopy(chars, start(i), to, 0, length(i));
+        }
+
+        private int start(int i) {
+            return i == 0 ? 0 : ends[i - 1];
+        }
+
+        /** Add s[0, length) unless it is in the set already
+         * @return true if it was added */
+        boolean add(char[] s, int length) {
+            int hash = HashIndex.hash(s, length);
+
+            int slot = hash & mask;
+            for (int entry; (entry = table[slot]) != 0; slot = (slot + 1) & mask) {
+                if (hashes[entry - 1] == hash && equals(entry - 1, s, length)) {
+                    return false;
                 }
             }
-            numStringSearch += neighbors.size();
+
+            int start = start(size);
+            if (start + length > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(2 * chars.length, start + length));
+            }
+            System.arraycopy(s, 0, chars, start, length);
+            if (size == ends.length) {
+                ends = Arrays.copyOf(ends, 2 * size);
+                hashes = Arrays.copyOf(hashes, 2 * size);
+            }
+            ends[size] = start + length;
+            hashes[size] = hash;
+            size++;
+            table[slot] = size;
+            if (2 * size > table.length) {
+                grow();
+            }
+            return true;
         }
 
-        return retList;
+        private boolean equals(int i, char[] s, int length) {
+            int start = start(i);
+            if (ends[i] - start != length) {
+                return false;
+            }
+            for (int j = 0; j < length; j++) {
+                if (chars[start + j] != s[j]) {
+                    return false;
+                }
+            }
+            return true;
+        }
 
+        /** Double the table, placing each String by its cached hash */
+        private void grow() {
+            table = new int[2 * table.length];
+            mask = table.length - 1;
+            for (int i = 0; i < size; i++) {
+                int slot = hashes[i] & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = i + 1;
+            }
+        }
     }
 
     public static void main(String[] args) {
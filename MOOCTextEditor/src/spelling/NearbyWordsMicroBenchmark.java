@@ -0,0 +1,195 @@
+package spelling;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import benchmark.MicroBenchmark;
+
+/** Benchmarks making nearby words with NearbyWords, against the way it
+ * made them before, with a StringBuffer and a String for every candidate
+ * and a search of the list for each.  Each is run in its own JVM, with
+ * DictionaryHashSet holding data/dict.txt.
+ *
+ * It measures:
+ *   distanceOne:words     distanceOne(word, true) on words of the dictionary
+ *   distanceOne:strings   distanceOne(word, false), every String one
+ *                         mutation away
+ *   distanceOne:visitor   distanceOne with a visitor that only counts the
+ *                         words, so that no String is made (NearbyWords only)
+ *   suggestions           suggestions(word, 10) on misspelled words
+ *
+ * The B/op column shows the allocation per call.
+ *
+ * Run with no arguments to benchmark both, or with "NearbyWords" or
+ * "StringBuffer" to benchmark one in this JVM.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ *
+ */
+public class NearbyWordsMicroBenchmark {
+
+	private static final String DICT_FILE = "data/dict.txt";
+
+	private static final String[] ENGINES = {"StringBuffer", "NearbyWords"};
+
+	public static void main(String [] args) throws Exception {
+		if (args.length == 0) {
+			System.out.println(MicroBenchmark.header());
+			for (String engine : ENGINES) {
+				MicroBenchmark.fork(NearbyWordsMicroBenchmark.class, engine);
+			}
+			return;
+		}
+
+		String engine = args[0];
+		String[] dictWords = DictionaryLoader.readSortedWords(Paths.get(DICT_FILE), StandardCharsets.UTF_8);
+		Dictionary dict = new DictionaryHashSet();
+		dict.addWords(dictWords);
+
+		// words of the dictionary, and the same words misspelled by a letter
+		Random random = new Random(42);
+		String[] words = new String[1000];
+		String[] typos = new String[words.length];
+		for (int i = 0; i < words.length; i++) {
+			words[i] = dictWords[random.nextInt(dictWords.length)];
+			int at = random.nextInt(words[i].length());
+			typos[i] = words[i].substring(0, at) + (char) ('a' + random.nextInt(26)) + words[i].substring(at + 1);
+		}
+
+		MicroBenchmark bench = new MicroBenchmark(3, 5, 1000);
+		String prefix = engine + ".";
+		int[] next = {0};
+		if (engine.equals("NearbyWords")) {
+			NearbyWords nearby = new NearbyWords(dict);
+			System.out.println(bench.measure(prefix + "distanceOne:words",
+					() -> nearby.distanceOne(words[next(next, words)], true).size()));
+			System.out.println(bench.measure(prefix + "distanceOne:strings",
+					() -> nearby.distanceOne(words[next(next, words)], false).size()));
+			int[] count = {0};
+			NearbyWords.NeighborVisitor counter = (chars, length) -> count[0]++;
+			System.out.println(bench.measure(prefix + "distanceOne:visitor", () -> {
+				count[0] = 0;
+				nearby.distanceOne(words[next(next, words)], true, counter);
+				return count[0];
+			}));
+			System.out.println(bench.measure(prefix + "suggestions",
+					() -> nearby.suggestions(typos[next(next, typos)], 10).size()));
+		}
+		else if (engine.equals("StringBuffer")) {
+			StringBufferNearbyWords nearby = new StringBufferNearbyWords(dict);
+			System.out.println(bench.measure(prefix + "distanceOne:words",
+					() -> nearby.distanceOne(words[next(next, words)], true).size()));
+			System.out.println(bench.measure(prefix + "distanceOne:strings",
+					() -> nearby.distanceOne(words[next(next, words)], false).size()));
+			System.out.println(bench.measure(prefix + "suggestions",
+					() -> nearby.suggestions(typos[next(next, typos)], 10).size()));
+		}
+		else {
+			System.err.println("Unknown engine " + engine + ", expected StringBuffer or NearbyWords");
+			System.exit(1);
+		}
+	}
+
+	/** Return next[0] and move it on, going round the words in order */
+	private static int next(int[] next, String[] words)
+	{
+		int i = next[0];
+		next[0] = i + 1 == words.length ? 0 : i + 1;
+		return i;
+	}
+
+	/* NearbyWords as it was, making a StringBuffer and a String for every
+	 * candidate, to measure against */
+	private static class StringBufferNearbyWords {
+		private static final int THRESHOLD = 100000;
+
+		private Dictionary dict;
+
+		StringBufferNearbyWords(Dictionary dict)
+		{
+			this.dict = dict;
+		}
+
+		List<String> distanceOne(String s, boolean wordsOnly)
+		{
+			List<String> retList = new ArrayList<String>();
+			insertions(s, retList, wordsOnly);
+			substitution(s, retList, wordsOnly);
+			deletions(s, retList, wordsOnly);
+			return retList;
+		}
+
+		void substitution(String s, List<String> currentList, boolean wordsOnly)
+		{
+			for (int index = 0; index < s.length(); index++) {
+				for (int charCode = (int) 'a'; charCode <= (int) 'z'; charCode++) {
+					StringBuffer sb = new StringBuffer(s);
+					sb.setCharAt(index, (char) charCode);
+					addStringToList(s, currentList, sb.toString(), wordsOnly);
+				}
+			}
+		}
+
+		private void addStringToList(String originalString, List<String> list, String string, boolean wordsOnly)
+		{
+			if (!list.contains(string) && (!wordsOnly || dict.isWord(string)) && !originalString.equals(string)) {
+				list.add(string);
+			}
+		}
+
+		void insertions(String s, List<String> currentList, boolean wordsOnly)
+		{
+			for (int index = 0; index < s.length(); index++) {
+				for (int charCode = (int) 'a'; charCode <= (int) 'z'; charCode++) {
+					StringBuffer sb = new StringBuffer(s);
+					if (index == 0) {
+						sb.insert(0, (char) charCode);
+						addStringToList(s, currentList, sb.toString(), wordsOnly);
+						sb.deleteCharAt(0);
+					}
+					sb.insert(index + 1, (char) charCode);
+					addStringToList(s, currentList, sb.toString(), wordsOnly);
+				}
+			}
+		}
+
+		void deletions(String s, List<String> currentList, boolean wordsOnly)
+		{
+			for (int index = 0; index < s.length(); index++) {
+				StringBuffer sb = new StringBuffer(s);
+				sb.deleteCharAt(index);
+				addStringToList(s, currentList, sb.toString(), wordsOnly);
+			}
+		}
+
+		List<String> suggestions(String word, int numSuggestions)
+		{
+			List<String> queue = new LinkedList<String>();
+			HashSet<String> visited = new HashSet<String>();
+			List<String> retList = new LinkedList<String>();
+			int numStringSearch = 0;
+			queue.add(word);
+			visited.add(word);
+			while (!queue.isEmpty() && numStringSearch <= THRESHOLD) {
+				String curr = queue.remove(0);
+				List<String> neighbors = distanceOne(curr, false);
+				for (String n : neighbors) {
+					if (!visited.contains(n)) {
+						visited.add(n);
+						queue.add(n);
+						if (dict.isWord(n) && retList.size() < numSuggestions) {
+							retList.add(n);
+						}
+					}
+				}
+				numStringSearch += neighbors.size();
+			}
+			return retList;
+		}
+	}
+}
@@ -0,0 +1,362 @@
+package spelling;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Spelling suggestions from a BK-tree over the dictionary.
+ *
+ * A BK-tree files each word under the first word of the tree (the root)
+ * by its distance from it, then recursively under the word already filed
+ * there.  Because the distance is a metric, a word within r of a query
+ * that is d from some node must be filed under that node at a distance
+ * from d - r to d + r, so every other child can be skipped.  Radius and
+ * nearest-k queries then compare the query with only part of the
+ * dictionary, whatever the length of the word, unlike NearbyWords, which
+ * makes about 54 n edited strings of a word of n letters at each step.
+ *
+ * The distance is the Damerau-Levenshtein distance: insertions,
+ * deletions, substitutions and swaps of adjacent letters each count 1,
+ * and letters may be edited again after being swapped.  (The optimal
+ * string alignment distance used by SpellingSuggestSymSpell does not obey
+ * the triangle inequality, which the tree relies on.)  It is computed in
+ * a table that is kept between calls.
+ *
+ * The tree is held in flat arrays, with the node for each word at the
+ * word's index in the sorted word list.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ *
+ */
+public class SpellingSuggestBKTree implements SpellingSuggest {
+
+	private static final int NONE = -1;
+
+	private String[] words;  // The dictionary, sorted, distinct and lower case
+	private int maxDistance;  // The furthest a suggestion can be from the word
+
+	private int root = NONE;
+	private int[] firstChild;  // The first child of each node, or NONE
+	private int[] nextSibling;  // The next child of the same parent, or NONE
+	private int[] edge;  // The distance of each node from its parent
+	private int[] maxEdge;  // The greatest distance of a child of each node, or -1
+
+	private int[] table = new int[256];  // The distance table, one row after another
+	private int[] lastRow = new int[Character.MAX_VALUE + 1];  // The last row of a with each character
+	private int[] stack = new int[64];
+	private long numCompared;  // Distances computed by the last query
+
+	/** Build the tree for these words, suggesting words up to distance 2
+	 * @param words The dictionary, in any order and case */
+	public SpellingSuggestBKTree(String[] words)
+	{
+		this(words, 2);
+	}
+
+	/** Build the tree for these words
+	 * @param words The dictionary, in any order and case
+	 * @param maxDistance The furthest a suggestion can be from the word */
+	public SpellingSuggestBKTree(String[] words, int maxDistance)
+	{
+		if (maxDistance < 1) {
+			throw new IllegalArgumentException("maxDistance must be at least 1: " + maxDistance);
+		}
+		this.words = DictionaryLoader.sortWords(words);
+		this.maxDistance = maxDistance;
+		firstChild = new int[this.words.length];
+		nextSibling = new int[this.words.length];
+		edge = new int[this.words.length];
+		maxEdge = new int[this.words.length];
+		Arrays.fill(firstChild, NONE);
+		Arrays.fill(maxEdge, -1);
+
+		// insert in a shuffled order, since in sorted order neighbouring
+		// words are filed under each other and the tree is deeper
+		int[] order = new int[this.words.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Random random = new Random(0);
+		for (int i = order.length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int swap = order[i];
+			order[i] = order[j];
+			order[j] = swap;
+		}
+		for (int word : order) {
+			insert(word);
+		}
+	}
+
+	/** File word under the node at its distance from it, going down the
+	 * tree until there is no node there */
+	private void insert(int word)
+	{
+		nextSibling[word] = NONE;
+		if (root == NONE) {
+			root = word;
+			return;
+		}
+		int node = root;
+		while (true) {
+			int d = distance(words[word], words[node], Integer.MAX_VALUE);
+			int child = firstChild[node];
+			while (child != NONE && edge[child] != d) {
+				child = nextSibling[child];
+			}
+			if (child == NONE) {
+				edge[word] = d;
+				nextSibling[word] = firstChild[node];
+				firstChild[node] = word;
+				maxEdge[node] = Math.max(maxEdge[node], d);
+				return;
+			}
+			node = child;
+		}
+	}
+
+	/** Return up to numSuggestions words within maxDistance of word, the
+	 * closest first and alphabetically among equals.  The word itself is
+	 * not suggested. */
+	@Override
+	public List<String> suggestions(String word, int numSuggestions)
+	{
+		return nearest(word.toLowerCase(), numSuggestions, 1, maxDistance);
+	}
+
+	/** Return every word within radius of word, the closest first and
+	 * alphabetically among equals.  The word itself is included if it is
+	 * in the dictionary. */
+	public List<String> withinRadius(String word, int radius)
+	{
+		return nearest(word.toLowerCase(), Integer.MAX_VALUE, 0, radius);
+	}
+
+	/** Return the k words nearest to word, the closest first and
+	 * alphabetically among equals.  The word itself is included if it is
+	 * in the dictionary. */
+	public List<String> nearest(String word, int k)
+	{
+		return nearest(word.toLowerCase(), k, 0, Integer.MAX_VALUE);
+	}
+
+	/** Return the number of distances computed by the last query */
+	public long getNumCompared()
+	{
+		return numCompared;
+	}
+
+	/** Return the number of words in the tree */
+	public int getNumWords()
+	{
+		return words.length;
+	}
+
+	/** Return the k nearest words from minDistance to maxDistance away.
+	 * The search radius starts at maxDistance and shrinks to the distance
+	 * of the kth word found so far. */
+	private List<String> nearest(String word, int k, int minDistance, int maxDistance)
+	{
+		numCompared = 0;
+		List<String> nearest = new ArrayList<String>();
+		if (k <= 0 || root == NONE) {
+			return nearest;
+		}
+
+		// the best words so far, worst first: by distance, then reverse
+		// alphabetically, as (distance, index into the sorted words)
+		PriorityQueue<long[]> best = new PriorityQueue<long[]>((a, b) ->
+				a[0] != b[0] ? Long.compare(b[0], a[0]) : Long.compare(b[1], a[1]));
+		int radius = maxDistance;
+
+		int size = 0;
+		stack[size++] = root;
+		while (size > 0) {
+			int node = stack[--size];
+			// no child is within radius of a distance beyond this, so
+			// the exact distance is not needed
+			int bound = radius == Integer.MAX_VALUE ? radius : maxEdge[node] + radius;
+			int d = distance(word, words[node], Math.max(bound, radius));
+			numCompared++;
+			if (d >= minDistance && d <= radius) {
+				best.add(new long[] {d, node});
+				if (best.size() > k) {
+					best.poll();
+				}
+				if (best.size() == k) {
+					radius = (int) best.peek()[0];
+				}
+			}
+
+			// children within radius of d by the triangle inequality
+			for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+				if (Math.abs(edge[child] - d) <= radius) {
+					if (size == stack.length) {
+						stack = Arrays.copyOf(stack, 2 * size);
+					}
+					stack[size++] = child;
+				}
+			}
+		}
+
+		while (!best.isEmpty()) {
+			nearest.add(words[(int) best.poll()[1]]);
+		}
+		Collections.reverse(nearest);
+		return nearest;
+	}
+
+	/** Return the Damerau-Levenshtein distance between a and b (the
+	 * algorithm of Lowrance and Wagner), or bound + 1 if it is more than
+	 * bound */
+	int distance(String a, String b, int bound)
+	{
+		int n = a.length();
+		int m = b.length();
+		if (Math.abs(n - m) > bound) {
+			return bound + 1;
+		}
+		int width = m + 2;
+		if (table.length < (n + 2) * width) {
+			table = new int[Math.max(2 * table.length, (n + 2) * width)];
+		}
+
+		// row and column 0 hold a bound no distance reaches, and row and
+		// column 1 the distances from the empty string
+		int infinity = n + m;
+		table[0] = infinity;
+		for (int i = 0; i <= n; i++) {
+			table[(i + 1) * width] = infinity;
+			table[(i + 1) * width + 1] = i;
+		}
+		for (int j = 0; j <= m; j++) {
+			table[j + 1] = infinity;
+			table[width + j + 1] = j;
+		}
+
+		for (int i = 1; i <= n; i++) {
+			char c = a.charAt(i - 1);
+			int lastMatch = 0;  // The last column of this row where b matched c
+			int row = (i + 1) * width;
+			int above = i * width;
+			int rowMin = i;
+			for (int j = 1; j <= m; j++) {
+				char d = b.charAt(j - 1);
+				int i1 = lastRow[d];
+				int j1 = lastMatch;
+				int cost = 1;
+				if (c == d) {
+					cost = 0;
+					lastMatch = j;
+				}
+				int value = Math.min(Math.min(table[above + j] + cost, table[row + j] + 1), table[above + j + 1] + 1);
+				// swap the letters at i1 and j1, editing those between
+				value = Math.min(value, table[i1 * width + j1] + (i - i1 - 1) + 1 + (j - j1 - 1));
+				table[row + j + 1] = value;
+				rowMin = Math.min(rowMin, value);
+			}
+			lastRow[c] = i;
+
+			// no row has a smaller minimum than the one before it, even
+			// with swaps, so the distance is more than bound already
+			if (rowMin > bound) {
+				for (int k = 0; k < i; k++) {
+					lastRow[a.charAt(k)] = 0;
+				}
+				return bound + 1;
+			}
+		}
+
+		for (int i = 0; i < n; i++) {
+			lastRow[a.charAt(i)] = 0;
+		}
+		int distance = table[(n + 1) * width + m + 1];
+		return distance > bound ? bound + 1 : distance;
+	}
+
+	/** Build the tree for a dictionary, then compare the time per
+	 * suggestion with NearbyWords, SpellingSuggestSymSpell and
+	 * SpellingSuggestTrie on misspellings of short and of long words.
+	 *
+	 * Usage: java spelling.SpellingSuggestBKTree [dictionary file]
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		String dictFile = args.length > 0 ? args[0] : "data/dict.txt";
+		String[] words = DictionaryLoader.readSortedWords(Paths.get(dictFile), StandardCharsets.UTF_8);
+
+		long start = System.nanoTime();
+		SpellingSuggestBKTree tree = new SpellingSuggestBKTree(words);
+		System.out.println(String.format("%d words: built in %.1f ms", tree.getNumWords(),
+				(System.nanoTime() - start) / 1e6));
+		SpellingSuggestSymSpell symSpell = new SpellingSuggestSymSpell(words);
+		AutoCompleteDictionaryTrie trie = new AutoCompleteDictionaryTrie();
+		trie.addWords(words);
+		SpellingSuggestTrie trieWalk = new SpellingSuggestTrie(trie);
+		NearbyWords nearby = new NearbyWords(trie);
+
+		Random random = new Random(42);
+		for (int minLength : new int[] {4, 12}) {
+			// misspell words of at least minLength letters by one or two edits
+			String[] typos = new String[100];
+			for (int i = 0; i < typos.length; i++) {
+				String word;
+				do {
+					word = words[random.nextInt(words.length)];
+				} while (word.length() < minLength || word.length() > minLength + 4);
+				StringBuilder typo = new StringBuilder(word);
+				for (int edits = 1 + i % 2; edits > 0; edits--) {
+					int at = random.nextInt(typo.length() - 1);
+					if (random.nextBoolean()) {
+						typo.setCharAt(at, (char) ('a' + random.nextInt(26)));
+					}
+					else {
+						char swap = typo.charAt(at);
+						typo.setCharAt(at, typo.charAt(at + 1));
+						typo.setCharAt(at + 1, swap);
+					}
+				}
+				typos[i] = typo.toString();
+			}
+
+			System.out.println("Words of " + minLength + " to " + (minLength + 4) + " letters, e.g. "
+					+ typos[0] + ": " + tree.suggestions(typos[0], 5));
+			for (int round = 0; round < 3; round++) {
+				long compared = 0;
+				start = System.nanoTime();
+				for (String typo : typos) {
+					tree.suggestions(typo, 10);
+					compared += tree.getNumCompared();
+				}
+				long treeTime = System.nanoTime() - start;
+				start = System.nanoTime();
+				for (String typo : typos) {
+					symSpell.suggestions(typo, 10);
+				}
+				long symSpellTime = System.nanoTime() - start;
+				start = System.nanoTime();
+				for (String typo : typos) {
+					trieWalk.suggestions(typo, 10);
+				}
+				long trieTime = System.nanoTime() - start;
+				System.out.println(String.format("  SpellingSuggestBKTree %.1f us/word (%d distances/word), "
+						+ "SpellingSuggestSymSpell %.1f us/word, SpellingSuggestTrie %.1f us/word",
+						treeTime / 1e3 / typos.length, compared / typos.length,
+						symSpellTime / 1e3 / typos.length, trieTime / 1e3 / typos.length));
+			}
+			start = System.nanoTime();
+			for (int i = 0; i < 10; i++) {
+				nearby.suggestions(typos[i], 10);
+			}
+			System.out.println(String.format("  NearbyWords %.1f us/word", (System.nanoTime() - start) / 1e3 / 10));
+			System.out.println("  nearest 5 to " + typos[1] + ": " + tree.nearest(typos[1], 5));
+		}
+	}
+}
@@ -0,0 +1,315 @@
+package spelling;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Spelling suggestions from a precomputed index of deletions (the
+ * symmetric delete method of SymSpell).
+ *
+ * Two words are within edit distance k of each other only if deleting at
+ * most k letters from each gives the same string.  So the index maps every
+ * string made by deleting up to maxDistance letters from a dictionary
+ * word to that word.  A misspelling is looked up by making its own
+ * deletions and looking each one up, which gives every word that might be
+ * close; the real distance is then checked for each of them.  A query for
+ * a word of n letters takes about n * n / 2 lookups for distance 2,
+ * instead of the BFS over hundreds of thousands of edited strings that
+ * NearbyWords does.
+ *
+ * As in SymSpell, only deletions from the first PREFIX_LENGTH letters of
+ * a word are indexed, which bounds the index for long words without
+ * missing any suggestion.  Deletions are stored as 32-bit hashes rather
+ * than as Strings, in a HashIndex of three flat arrays: the sorted
+ * distinct hashes, where the words for each hash start, and the words
+ * themselves as indexes into the word list.  Two deletions with the same
+ * hash only give an extra word to check.
+ *
+ * Distance is the optimal string alignment distance: insertions,
+ * deletions, substitutions and swaps of adjacent letters each count 1.
+ * Suggestions are the closest words, alphabetically among equals.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ *
+ */
+public class SpellingSuggestSymSpell implements SpellingSuggest {
+
+	// Only deletions from this many letters at the start of a word are indexed
+	private static final int PREFIX_LENGTH = 7;
+
+	private String[] words;  // The dictionary, sorted, distinct and lower case
+	private int maxDistance;
+
+	private HashIndex index;  // The hashes of the deletions, to indexes into words
+
+	private int[] seen;  // The query in which each word was last a candidate
+	private int query = 0;
+
+	// Rows of the distance table, reused between candidates
+	private int[] before = new int[16];
+	private int[] previous = new int[16];
+	private int[] current = new int[16];
+
+	/** Index these words for suggestions up to distance 2
+	 * @param words The dictionary, in any order and case */
+	public SpellingSuggestSymSpell(String[] words)
+	{
+		this(words, 2);
+	}
+
+	/** Index these words for suggestions up to maxDistance
+	 * @param words The dictionary, in any order and case
+	 * @param maxDistance The furthest a suggestion can be from the word */
+	public SpellingSuggestSymSpell(String[] words, int maxDistance)
+	{
+		if (maxDistance < 1) {
+			throw new IllegalArgumentException("maxDistance must be at least 1: " + maxDistance);
+		}
+		this.words = DictionaryLoader.sortWords(words);
+		this.maxDistance = maxDistance;
+		this.seen = new int[this.words.length];
+
+		// every (hash of a deletion, word) pair, sorted so that each hash
+		// has its words together
+		long[] pairs = new long[16];
+		int numPairs = 0;
+		Deletions deletions = new Deletions();
+		for (int id = 0; id < this.words.length; id++) {
+			deletions.generate(this.words[id], maxDistance);
+			for (int i = 0; i < deletions.size; i++) {
+				pairs = HashIndex.add(pairs, numPairs++, deletions.hashes[i], id);
+			}
+		}
+		index = new HashIndex(pairs, numPairs);
+	}
+
+	/** Return up to numSuggestions words within maxDistance of word, the
+	 * closest first.  The word itself is not suggested. */
+	@Override
+	public List<String> suggestions(String word, int numSuggestions)
+	{
+		String lower = word.toLowerCase();
+		List<String> suggestions = new ArrayList<String>();
+		if (numSuggestions <= 0) {
+			return suggestions;
+		}
+
+		// the words found at each distance
+		List<List<String>> found = new ArrayList<List<String>>();
+		for (int distance = 0; distance <= maxDistance; distance++) {
+			found.add(new ArrayList<String>());
+		}
+
+		query++;
+		if (query == 0) {
+			Arrays.fill(seen, 0);
+			query = 1;
+		}
+		Deletions deletions = new Deletions();
+		deletions.generate(lower, maxDistance);
+		for (int d = 0; d < deletions.size; d++) {
+			int key = index.find(deletions.hashes[d]);
+			if (key < 0) {
+				continue;
+			}
+			for (int p = index.starts[key]; p < index.starts[key + 1]; p++) {
+				int id = index.postings[p];
+				if (seen[id] == query) {
+					continue;
+				}
+				seen[id] = query;
+				String candidate = words[id];
+				if (Math.abs(candidate.length() - lower.length()) > maxDistance) {
+					continue;
+				}
+				int distance = distance(lower, candidate);
+				if (distance <= maxDistance) {
+					found.get(distance).add(candidate);
+				}
+			}
+		}
+
+		// closest first, then alphabetically
+		for (int distance = 1; distance <= maxDistance && suggestions.size() < numSuggestions; distance++) {
+			List<String> atDistance = found.get(distance);
+			atDistance.sort(null);
+			suggestions.addAll(atDistance.subList(0, Math.min(atDistance.size(), numSuggestions - suggestions.size())));
+		}
+		return suggestions;
+	}
+
+	/** Return the number of words indexed */
+	public int getNumWords()
+	{
+		return words.length;
+	}
+
+	/** Return the number of (deletion, word) pairs in the index */
+	public int getNumDeletions()
+	{
+		return index.postings.length;
+	}
+
+	/** Return the number of bytes in the index, not counting the words */
+	public long getIndexBytes()
+	{
+		return index.bytes() + 4L * seen.length;
+	}
+
+	/** Return the optimal string alignment distance between a and b, or
+	 * maxDistance + 1 if it is more than maxDistance */
+	private int distance(String a, String b)
+	{
+		int max = maxDistance;
+		if (current.length <= b.length()) {
+			before = new int[b.length() + 1];
+			previous = new int[b.length() + 1];
+			current = new int[b.length() + 1];
+		}
+		for (int j = 0; j <= b.length(); j++) {
+			previous[j] = j;
+		}
+		for (int i = 1; i <= a.length(); i++) {
+			current[0] = i;
+			int rowMin = i;
+			char c = a.charAt(i - 1);
+			for (int j = 1; j <= b.length(); j++) {
+				char d = b.charAt(j - 1);
+				int cost = c == d ? 0 : 1;
+				int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+				if (i > 1 && j > 1 && c == b.charAt(j - 2) && a.charAt(i - 2) == d) {
+					value = Math.min(value, before[j - 2] + 1);
+				}
+				current[j] = value;
+				rowMin = Math.min(rowMin, value);
+			}
+			if (rowMin > max) {
+				return max + 1;
+			}
+			int[] rotate = before;
+			before = previous;
+			previous = current;
+			current = rotate;
+		}
+		return Math.min(previous[b.length()], max + 1);
+	}
+
+	/* The distinct hashes of the strings made by deleting up to some number
+	 * of letters from the start of a word, made without building them */
+	private static class Deletions {
+		int[] hashes = new int[64];
+		int size;
+		private char[] buffer = new char[PREFIX_LENGTH];
+
+		/** Replace the hashes with those of the deletions from word */
+		void generate(String word, int maxDistance)
+		{
+			int length = Math.min(word.length(), PREFIX_LENGTH);
+			word.getChars(0, length, buffer, 0);
+			size = 0;
+			delete(length, 0, maxDistance);
+
+			Arrays.sort(hashes, 0, size);
+			int distinct = 0;
+			for (int i = 0; i < size; i++) {
+				if (distinct == 0 || hashes[i] != hashes[distinct - 1]) {
+					hashes[distinct++] = hashes[i];
+				}
+			}
+			size = distinct;
+		}
+
+		/** Add buffer[0, length), and every string made by deleting up to
+		 * distance more letters from it at from or later */
+		private void delete(int length, int from, int distance)
+		{
+			if (size == hashes.length) {
+				hashes = Arrays.copyOf(hashes, 2 * size);
+			}
+			hashes[size++] = HashIndex.hash(buffer, length);
+			if (distance == 0) {
+				return;
+			}
+			for (int i = from; i < length; i++) {
+				char removed = buffer[i];
+				System.arraycopy(buffer, i + 1, buffer, i, length - i - 1);
+				delete(length - 1, i, distance - 1);
+				System.arraycopy(buffer, i, buffer, i + 1, length - i - 1);
+				buffer[i] = removed;
+			}
+		}
+	}
+
+	/** Build the index for a dictionary, report its build time and size,
+	 * and compare the time per suggestion with NearbyWords on misspellings
+	 * of words from the dictionary.
+	 *
+	 * Usage: java spelling.SpellingSuggestSymSpell [dictionary file]
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		String dictFile = args.length > 0 ? args[0] : "data/dict.txt";
+		String[] words = DictionaryLoader.readSortedWords(Paths.get(dictFile), StandardCharsets.UTF_8);
+
+		long start = System.nanoTime();
+		SpellingSuggestSymSpell symSpell = new SpellingSuggestSymSpell(words);
+		long buildTime = System.nanoTime() - start;
+		System.out.println(String.format("%d words: built in %.1f ms, %,d deletions, %,d bytes of index "
+				+ "(%.1f bytes/word)", symSpell.getNumWords(), buildTime / 1e6, symSpell.getNumDeletions(),
+				symSpell.getIndexBytes(), (double) symSpell.getIndexBytes() / symSpell.getNumWords()));
+
+		// misspell words by one or two random edits
+		Random random = new Random(42);
+		String[] typos = new String[200];
+		for (int i = 0; i < typos.length; i++) {
+			StringBuilder typo = new StringBuilder(words[random.nextInt(words.length)]);
+			for (int edits = 1 + i % 2; edits > 0; edits--) {
+				int at = random.nextInt(typo.length());
+				char c = (char) ('a' + random.nextInt(26));
+				switch (random.nextInt(3)) {
+				case 0:
+					typo.setCharAt(at, c);
+					break;
+				case 1:
+					typo.insert(at, c);
+					break;
+				default:
+					if (typo.length() > 1) {
+						typo.deleteCharAt(at);
+					}
+				}
+			}
+			typos[i] = typo.toString();
+		}
+
+		for (int round = 0; round < 5; round++) {
+			start = System.nanoTime();
+			int found = 0;
+			for (String typo : typos) {
+				found += symSpell.suggestions(typo, 10).size();
+			}
+			long time = System.nanoTime() - start;
+			System.out.println(String.format("SpellingSuggestSymSpell: %.1f us/word, %.1f suggestions/word",
+					time / 1e3 / typos.length, (double) found / typos.length));
+		}
+		System.out.println(typos[0] + ": " + symSpell.suggestions(typos[0], 10));
+		System.out.println(typos[1] + ": " + symSpell.suggestions(typos[1], 10));
+
+		DictionaryHashSet dict = new DictionaryHashSet();
+		dict.addWords(words);
+		NearbyWords nearby = new NearbyWords(dict);
+		start = System.nanoTime();
+		int found = 0;
+		for (int i = 0; i < 20; i++) {
+			found += nearby.suggestions(typos[i], 10).size();
+		}
+		long time = System.nanoTime() - start;
+		System.out.println(String.format("NearbyWords:             %.1f us/word, %.1f suggestions/word",
+				time / 1e3 / 20, found / 20.0));
+	}
+}
@@ -0,0 +1,230 @@
+package spelling;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Spelling suggestions found by walking an AutoCompleteDictionaryTrie
+ * with the edit distance table.
+ *
+ * The distance between the misspelled word and every word in the trie is
+ * one table with a row per letter of the dictionary word.  Words that
+ * share a prefix share the rows for it, so walking the trie depth first
+ * and computing one row per node gives the distance to every word.  A
+ * subtree is skipped as soon as every entry of the row for its node is
+ * more than maxDistance, since no word below it can then be close enough.
+ * Only the nodes near the misspelled word are visited, instead of the
+ * hundreds of thousands of edited strings NearbyWords makes and looks up.
+ *
+ * Because the trie is walked as it is, words added to it later are
+ * suggested too.
+ *
+ * Distance is the optimal string alignment distance: insertions,
+ * deletions, substitutions and swaps of adjacent letters each count 1.
+ * Suggestions are the closest words, alphabetically among equals.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ *
+ */
+public class SpellingSuggestTrie implements SpellingSuggest {
+
+	private AutoCompleteDictionaryTrie dict;
+	private int maxDistance;
+
+	private int[][] rows = new int[0][];  // The row of the table for each depth, reused between calls
+	private String word;  // The word being corrected, in lower case
+	private List<List<String>> found;  // The words found at each distance
+	private long numVisited;  // The nodes visited by the last call
+
+	/** Suggest words from this trie up to distance 2 */
+	public SpellingSuggestTrie(AutoCompleteDictionaryTrie dict)
+	{
+		this(dict, 2);
+	}
+
+	/** Suggest words from this trie up to maxDistance
+	 * @param dict The dictionary to suggest words from
+	 * @param maxDistance The furthest a suggestion can be from the word */
+	public SpellingSuggestTrie(AutoCompleteDictionaryTrie dict, int maxDistance)
+	{
+		if (maxDistance < 1) {
+			throw new IllegalArgumentException("maxDistance must be at least 1: " + maxDistance);
+		}
+		this.dict = dict;
+		this.maxDistance = maxDistance;
+	}
+
+	/** Return up to numSuggestions words within maxDistance of word, the
+	 * closest first.  The word itself is not suggested. */
+	@Override
+	public List<String> suggestions(String word, int numSuggestions)
+	{
+		List<String> suggestions = new ArrayList<String>();
+		if (numSuggestions <= 0) {
+			return suggestions;
+		}
+		search(word);
+
+		// closest first, then alphabetically
+		for (int distance = 1; distance <= maxDistance && suggestions.size() < numSuggestions; distance++) {
+			List<String> atDistance = found.get(distance);
+			atDistance.sort(null);
+			suggestions.addAll(atDistance.subList(0, Math.min(atDistance.size(), numSuggestions - suggestions.size())));
+		}
+		return suggestions;
+	}
+
+	/** Return every word within maxDistance of word with its distance, as
+	 * one list of words for each distance from 0 to maxDistance */
+	public List<List<String>> withinDistance(String word)
+	{
+		search(word);
+		for (List<String> atDistance : found) {
+			atDistance.sort(null);
+		}
+		return found;
+	}
+
+	/** Return the number of trie nodes the last search visited */
+	public long getNumVisited()
+	{
+		return numVisited;
+	}
+
+	/** Fill found with the words within maxDistance of word */
+	private void search(String word)
+	{
+		this.word = word.toLowerCase();
+		this.found = new ArrayList<List<String>>();
+		for (int distance = 0; distance <= maxDistance; distance++) {
+			found.add(new ArrayList<String>());
+		}
+		numVisited = 0;
+
+		// the row for the empty prefix: the word's first j letters are j
+		// insertions away from it
+		int[] row = row(0);
+		for (int j = 0; j < row.length; j++) {
+			row[j] = j;
+		}
+		visit(dict.getRoot(), 0, (char) 0);
+	}
+
+	/** Visit the children of node, whose row is rows[depth] and which is
+	 * linked to its parent by previous */
+	private void visit(TrieNode node, int depth, char previous)
+	{
+		numVisited++;
+		int n = word.length();
+		int[] above = rows[depth];
+		int[] twoAbove = depth > 0 ? rows[depth - 1] : null;
+		for (Map.Entry<Character, TrieNode> link : node.getChildren().entrySet()) {
+			char c = link.getKey();
+			TrieNode child = link.getValue();
+			int[] row = row(depth + 1);
+			row[0] = depth + 1;
+			int rowMin = row[0];
+			for (int j = 1; j <= n; j++) {
+				char d = word.charAt(j - 1);
+				int value = Math.min(Math.min(above[j] + 1, row[j - 1] + 1), above[j - 1] + (c == d ? 0 : 1));
+				if (twoAbove != null && j > 1 && c == word.charAt(j - 2) && previous == d) {
+					value = Math.min(value, twoAbove[j - 2] + 1);
+				}
+				row[j] = value;
+				rowMin = Math.min(rowMin, value);
+			}
+
+			if (child.endsWord() && row[n] <= maxDistance) {
+				found.get(row[n]).add(child.getText());
+			}
+			if (rowMin <= maxDistance) {
+				visit(child, depth + 1, c);
+			}
+		}
+	}
+
+	/** Return the row for depth, making room for it if needed */
+	private int[] row(int depth)
+	{
+		if (depth >= rows.length) {
+			int[][] grown = new int[Math.max(2 * rows.length, depth + 1)][];
+			System.arraycopy(rows, 0, grown, 0, rows.length);
+			rows = grown;
+		}
+		if (rows[depth] == null || rows[depth].length <= word.length()) {
+			rows[depth] = new int[word.length() + 1];
+		}
+		return rows[depth];
+	}
+
+	/** Compare the time per suggestion with NearbyWords, and show how much
+	 * of the trie a search visits, on misspellings of words from the
+	 * dictionary.
+	 *
+	 * Usage: java spelling.SpellingSuggestTrie [dictionary file]
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		String dictFile = args.length > 0 ? args[0] : "data/dict.txt";
+		String[] words = DictionaryLoader.readSortedWords(Paths.get(dictFile), StandardCharsets.UTF_8);
+		AutoCompleteDictionaryTrie trie = new AutoCompleteDictionaryTrie();
+		trie.addWords(words);
+
+		// misspell words by one or two random edits
+		Random random = new Random(42);
+		String[] typos = new String[200];
+		for (int i = 0; i < typos.length; i++) {
+			StringBuilder typo = new StringBuilder(words[random.nextInt(words.length)]);
+			for (int edits = 1 + i % 2; edits > 0; edits--) {
+				int at = random.nextInt(typo.length());
+				char c = (char) ('a' + random.nextInt(26));
+				switch (random.nextInt(3)) {
+				case 0:
+					typo.setCharAt(at, c);
+					break;
+				case 1:
+					typo.insert(at, c);
+					break;
+				default:
+					if (typo.length() > 1) {
+						typo.deleteCharAt(at);
+					}
+				}
+			}
+			typos[i] = typo.toString();
+		}
+
+		for (int maxDistance = 1; maxDistance <= 2; maxDistance++) {
+			SpellingSuggestTrie suggest = new SpellingSuggestTrie(trie, maxDistance);
+			for (int round = 0; round < 5; round++) {
+				long visited = 0;
+				int found = 0;
+				long start = System.nanoTime();
+				for (String typo : typos) {
+					found += suggest.suggestions(typo, 10).size();
+					visited += suggest.getNumVisited();
+				}
+				long time = System.nanoTime() - start;
+				System.out.println(String.format("SpellingSuggestTrie, distance %d: %.1f us/word, "
+						+ "%.0f nodes visited/word, %.1f suggestions/word", maxDistance,
+						time / 1e3 / typos.length, (double) visited / typos.length, (double) found / typos.length));
+			}
+			System.out.println(typos[0] + ": " + suggest.suggestions(typos[0], 10));
+		}
+
+		NearbyWords nearby = new NearbyWords(trie);
+		long start = System.nanoTime();
+		int found = 0;
+		for (int i = 0; i < 20; i++) {
+			found += nearby.suggestions(typos[i], 10).size();
+		}
+		long time = System.nanoTime() - start;
+		System.out.println(String.format("NearbyWords: %.1f us/word, %.1f suggestions/word",
+				time / 1e3 / 20, found / 20.0));
+	}
+}
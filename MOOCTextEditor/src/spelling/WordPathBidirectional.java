@@ -0,0 +1,370 @@
+package spelling;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * WordPath by a breadth first search from both words at once, over an
+ * index of which words are one step apart.
+ *
+ * WPTree finds the neighbors of a word by making every string one step
+ * away, about 53 for each letter, and looking each one up in the
+ * dictionary.  Here every word is filed once, ahead of time, in buckets
+ * by pattern: under each of its wildcard patterns ("h_t" holds hat, hit
+ * and hot) and under itself and each of its deletions ("ht" holds hat,
+ * hit and hot too).  The neighbors of a word are then the other words in
+ * the buckets for its own patterns, found with one binary search per
+ * bucket.  As in SpellingSuggestSymSpell, the patterns are stored as
+ * 32-bit hashes in a HashIndex, and two patterns with the same hash only
+ * give extra words to check.
+ *
+ * The search goes a whole level at a time from whichever word has the
+ * smaller frontier, and stops at the level where the two searches meet,
+ * so a path of length d costs two searches of depth about d / 2 rather
+ * than one of depth d.
+ *
+ * A step is one of those of NearbyWords.distanceOne: a letter a-z
+ * substituted or inserted, or any character deleted.  A step cannot
+ * always be taken back ("a's" to "as" is a step, "as" to "a's" is not),
+ * so the search from the second word follows steps backwards.  Words are
+ * compared in lower case and the path is returned in lower case.
+ *
+ * The index is not changed by findPath, so several threads can search it.
+ *
+ * @author UC San Diego Intermediate Programming MOOC team
+ *
+ */
+public class WordPathBidirectional implements WordPath {
+
+	// Seeds that keep the hashes of wildcard patterns apart from those of deletions
+	private static final int WILDCARD = 0x9e3779b9;
+	private static final int DELETION = HashIndex.FNV_BASIS;
+
+	private String[] words;  // The dictionary, sorted, distinct and lower case
+
+	private HashIndex index;  // The hashes of the patterns, to indexes into words
+
+	/** Index these words for finding paths
+	 * @param words The dictionary, in any order and case */
+	public WordPathBidirectional(String[] words)
+	{
+		this.words = DictionaryLoader.sortWords(words);
+
+		// every (hash of a pattern, word) pair, sorted so that each hash has
+		// its words together
+		long[] pairs = new long[16];
+		int numPairs = 0;
+		int[] hashes = new int[16];
+		for (int id = 0; id < this.words.length; id++) {
+			String word = this.words[id];
+			int length = word.length();
+			if (hashes.length < 2 * length + 1) {
+				hashes = new int[2 * length + 1];
+			}
+			int size = 0;
+			hashes[size++] = deletionHash(word, -1);
+			for (int i = 0; i < length; i++) {
+				hashes[size++] = wildcardHash(word, i);
+				hashes[size++] = deletionHash(word, i);
+			}
+
+			// deleting either of two equal letters gives the same pattern
+			Arrays.sort(hashes, 0, size);
+			for (int i = 0; i < size; i++) {
+				if (i == 0 || hashes[i] != hashes[i - 1]) {
+					pairs = HashIndex.add(pairs, numPairs++, hashes[i], id);
+				}
+			}
+		}
+		index = new HashIndex(pairs, numPairs);
+	}
+
+	/** Return a shortest path from word1 to word2, or an empty list if
+	 * there is none.  word2 must be in the dictionary; word1 need not be. */
+	@Override
+	public List<String> findPath(String word1, String word2)
+	{
+		String start = word1.toLowerCase();
+		String end = word2.toLowerCase();
+		List<String> path = new LinkedList<String>();
+		int endId = Arrays.binarySearch(words, end);
+		if (endId < 0) {
+			return path;
+		}
+		if (start.equals(end)) {
+			path.add(end);
+			return path;
+		}
+
+		// the start word is node words.length when it is not a word
+		int startId = Arrays.binarySearch(words, start);
+		if (startId < 0) {
+			startId = words.length;
+		}
+		Side forward = new Side(true, start, startId);
+		Side backward = new Side(false, start, endId);
+		forward.other = backward;
+		backward.other = forward;
+
+		while (forward.frontierSize > 0 && backward.frontierSize > 0) {
+			Side side = forward.frontierSize <= backward.frontierSize ? forward : backward;
+			side.expand();
+			if (side.meet >= 0) {
+				for (int node = side.meet; ; node = forward.parent[node]) {
+					path.add(0, forward.word(node));
+					if (forward.parent[node] == node) {
+						break;
+					}
+				}
+				for (int node = side.meet; backward.parent[node] != node; ) {
+					node = backward.parent[node];
+					path.add(words[node]);
+				}
+				return path;
+			}
+		}
+		return path;
+	}
+
+	/** Return the number of words indexed */
+	public int getNumWords()
+	{
+		return words.length;
+	}
+
+	/** Return the number of (pattern, word) pairs in the index */
+	public int getNumPostings()
+	{
+		return index.postings.length;
+	}
+
+	/** Return the number of bytes in the index, not counting the words */
+	public long getIndexBytes()
+	{
+		return index.bytes();
+	}
+
+	/* The search from one of the two words: the nodes it has reached, how,
+	 * and the ones it reached last */
+	private class Side {
+		final boolean forward;  // Whether steps are followed forwards, from the first word
+		final String start;  // The word of node words.length
+		final int[] parent;  // The node each node was reached from, itself for the root, -1 if not reached
+		final int[] depth;  // The number of steps to each node that has been reached
+		Side other;
+
+		int[] frontier = new int[16];  // The nodes reached by the last level
+		int frontierSize;
+		int[] next = new int[16];  // The nodes reached by this level
+		int nextSize;
+
+		int meet = -1;  // The node the best path found goes through, if any
+		int meetLength;  // The length of that path
+
+		Side(boolean forward, String start, int root)
+		{
+			this.forward = forward;
+			this.start = start;
+			parent = new int[words.length + 1];
+			depth = new int[words.length + 1];
+			Arrays.fill(parent, -1);
+			parent[root] = root;
+			frontier[frontierSize++] = root;
+		}
+
+		String word(int node)
+		{
+			return node == words.length ? start : words[node];
+		}
+
+		/** Reach every node one step from the frontier, and remember the
+		 * shortest path through any of them that the other side reached */
+		void expand()
+		{
+			nextSize = 0;
+			for (int f = 0; f < frontierSize; f++) {
+				steps(frontier[f]);
+			}
+			int[] swap = frontier;
+			frontier = next;
+			frontierSize = nextSize;
+			next = swap;
+		}
+
+		/** Reach the words one step from node, following steps forwards or
+		 * backwards */
+		private void steps(int node)
+		{
+			String word = word(node);
+			int length = word.length();
+
+			// the same length: the other words with one of the word's
+			// wildcard patterns.  Only letters are substituted in.
+			for (int i = 0; i < length; i++) {
+				if (!forward && !isLetter(word.charAt(i))) {
+					continue;
+				}
+				int key = index.find(wildcardHash(word, i));
+				for (int p = key < 0 ? 0 : index.starts[key]; key >= 0 && p < index.starts[key + 1]; p++) {
+					int id = index.postings[p];
+					String candidate = words[id];
+					if (parent[id] < 0 && candidate.length() == length && candidate.charAt(i) != word.charAt(i)
+							&& (!forward || isLetter(candidate.charAt(i)))
+							&& word.regionMatches(0, candidate, 0, i)
+							&& word.regionMatches(i + 1, candidate, i + 1, length - i - 1)) {
+						reach(node, id);
+					}
+				}
+			}
+
+			// a letter longer: the words that the word is a deletion of.  Only
+			// letters are inserted.
+			int key = index.find(deletionHash(word, -1));
+			for (int p = key < 0 ? 0 : index.starts[key]; key >= 0 && p < index.starts[key + 1]; p++) {
+				int id = index.postings[p];
+				String candidate = words[id];
+				if (parent[id] < 0 && candidate.length() == length + 1) {
+					int at = deletedAt(candidate, word);
+					if (at >= 0 && (!forward || isLetter(candidate.charAt(at)))) {
+						reach(node, id);
+					}
+				}
+			}
+
+			// a letter shorter: the word's deletions that are words
+			for (int i = 0; i < length; i++) {
+				if (!forward && !isLetter(word.charAt(i)) || i > 0 && word.charAt(i) == word.charAt(i - 1)) {
+					continue;
+				}
+				key = index.find(deletionHash(word, i));
+				for (int p = key < 0 ? 0 : index.starts[key]; key >= 0 && p < index.starts[key + 1]; p++) {
+					int id = index.postings[p];
+					String candidate = words[id];
+					if (parent[id] < 0 && candidate.length() == length - 1
+							&& word.regionMatches(0, candidate, 0, i)
+							&& word.regionMatches(i + 1, candidate, i, length - i - 1)) {
+						reach(node, id);
+					}
+				}
+			}
+		}
+
+		private void reach(int from, int node)
+		{
+			parent[node] = from;
+			depth[node] = depth[from] + 1;
+			if (nextSize == next.length) {
+				next = Arrays.copyOf(next, 2 * nextSize);
+			}
+			next[nextSize++] = node;
+			if (other.parent[node] >= 0) {
+				int length = depth[node] + other.depth[node];
+				if (meet < 0 || length < meetLength) {
+					meet = node;
+					meetLength = length;
+				}
+			}
+		}
+	}
+
+	private static boolean isLetter(char c)
+	{
+		return c >= 'a' && c <= 'z';
+	}
+
+	/** Return where a letter was deleted from longer to give shorter, which
+	 * is one letter shorter, or -1 if it wasn't */
+	private static int deletedAt(String longer, String shorter)
+	{
+		int at = 0;
+		while (at < shorter.length() && longer.charAt(at) == shorter.charAt(at)) {
+			at++;
+		}
+		return longer.regionMatches(at + 1, shorter, at, shorter.length() - at) ? at : -1;
+	}
+
+	/** Hash word with the letter at i replaced by a wildcard */
+	private static int wildcardHash(String word, int i)
+	{
+		int hash = WILDCARD;
+		for (int j = 0; j < word.length(); j++) {
+			hash ^= j == i ? 0x10000 : word.charAt(j);
+			hash *= HashIndex.FNV_PRIME;
+		}
+		return HashIndex.spread(hash);
+	}
+
+	/** Hash word with the letter at i deleted, or all of word if i is -1 */
+	private static int deletionHash(String word, int i)
+	{
+		int hash = DELETION;
+		for (int j = 0; j < word.length(); j++) {
+			if (j != i) {
+				hash ^= word.charAt(j);
+				hash *= HashIndex.FNV_PRIME;
+			}
+		}
+		return HashIndex.spread(hash);
+	}
+
+	/** Build the index for a dictionary, report its build time and size,
+	 * and compare the time to find paths with WPTree, on the paths of the
+	 * WPTree grader and on random pairs of words with long paths.
+	 *
+	 * Usage: java spelling.WordPathBidirectional [dictionary file]
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		String dictFile = args.length > 0 ? args[0] : "data/dict.txt";
+		String[] words = DictionaryLoader.readSortedWords(Paths.get(dictFile), StandardCharsets.UTF_8);
+
+		long start = System.nanoTime();
+		WordPathBidirectional bidirectional = new WordPathBidirectional(words);
+		long buildTime = System.nanoTime() - start;
+		System.out.println(String.format("%d words: built in %.1f ms, %,d postings, %,d bytes of index",
+				bidirectional.getNumWords(), buildTime / 1e6, bidirectional.getNumPostings(),
+				bidirectional.getIndexBytes()));
+
+		// pairs of short words, kept if the path between them is long
+		Random random = new Random(42);
+		List<String[]> pairs = new LinkedList<String[]>();
+		pairs.add(new String[] {"pool", "spoon"});
+		pairs.add(new String[] {"stools", "moon"});
+		pairs.add(new String[] {"foal", "needless"});
+		while (pairs.size() < 13) {
+			String word1 = words[random.nextInt(words.length)];
+			String word2 = words[random.nextInt(words.length)];
+			if (word1.length() <= 5 && word2.length() <= 5 && bidirectional.findPath(word1, word2).size() > 7) {
+				pairs.add(new String[] {word1, word2});
+			}
+		}
+
+		Dictionary dict = new DictionaryHashSet();
+		dict.addWords(words);
+		WPTree tree = new WPTree(new NearbyWords(dict));
+		long treeTime = 0;
+		long bidirectionalTime = 0;
+		for (String[] pair : pairs) {
+			start = System.nanoTime();
+			List<String> treePath = tree.findPath(pair[0], pair[1]);
+			treeTime += System.nanoTime() - start;
+
+			List<String> path = null;
+			start = System.nanoTime();
+			for (int round = 0; round < 10; round++) {
+				path = bidirectional.findPath(pair[0], pair[1]);
+			}
+			bidirectionalTime += (System.nanoTime() - start) / 10;
+			System.out.println(String.format("%s -> %s: %d steps (WPTree %d): %s", pair[0], pair[1],
+					path.size() - 1, treePath.size() - 1, path));
+		}
+		System.out.println(String.format("WPTree:                %.1f ms/path", treeTime / 1e6 / pairs.size()));
+		System.out.println(String.format("WordPathBidirectional: %.2f ms/path",
+				bidirectionalTime / 1e6 / pairs.size()));
+	}
+}